@@ -0,0 +1,83 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move generation and game-state queries on {@link ChessGame}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ChessGameBenchmark {
+
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    public Positions position;
+
+    private ChessGame game;
+    private List<ChessPosition> sideToMove;
+
+    @Setup
+    public void setup() {
+        game = position.newGame();
+        sideToMove = game.getBoard().getTeamPositions(game.getTeamTurn());
+    }
+
+    /** validMoves for every piece of the side to move, as a client highlighting each piece would. */
+    @Benchmark
+    public void validMovesAllPieces(Blackhole blackhole) {
+        for (ChessPosition pos : sideToMove) {
+            blackhole.consume(game.validMoves(pos));
+        }
+    }
+
+    @Benchmark
+    public Object legalMoves() {
+        return game.legalMoves(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(game.getTeamTurn());
+    }
+
+    /**
+     * A fresh game per invocation so every measured makeMove starts from the same position.
+     */
+    @State(Scope.Thread)
+    public static class MoveState {
+
+        @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+        public Positions position;
+
+        ChessGame game;
+        ChessMove move;
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            game = position.newGame();
+            move = game.legalMoves(game.getTeamTurn()).iterator().next();
+        }
+    }
+
+    @Benchmark
+    public ChessGame makeMove(MoveState state) throws InvalidMoveException {
+        state.game.makeMove(state.move);
+        return state.game;
+    }
+}
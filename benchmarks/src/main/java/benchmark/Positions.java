@@ -0,0 +1,102 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+import java.util.Map;
+
+/**
+ * Standard positions the benchmarks run against, drawn in the same board text
+ * format the passoff tests use (row 8 at the top, upper case for white).
+ */
+public enum Positions {
+
+    /** The initial position: every piece on the board, few moves available. */
+    OPENING(ChessGame.TeamColor.WHITE, """
+            |r|n|b|q|k|b|n|r|
+            |p|p|p|p|p|p|p|p|
+            | | | | | | | | |
+            | | | | | | | | |
+            | | | | | | | | |
+            | | | | | | | | |
+            |P|P|P|P|P|P|P|P|
+            |R|N|B|Q|K|B|N|R|
+            """),
+
+    /** A crowded middlegame with open lines, pins and many captures. */
+    MIDDLEGAME(ChessGame.TeamColor.WHITE, """
+            |r| | | |k| | |r|
+            |p| |p|p|q|p|b| |
+            |b|n| | |p|n|p| |
+            | | | |P|N| | | |
+            | |p| | |P| | | |
+            | | |N| | |Q| |p|
+            |P|P|P|B|B|P|P|P|
+            |R| | | |K| | |R|
+            """),
+
+    /** A sparse rook endgame where sliders see most of the board. */
+    ENDGAME(ChessGame.TeamColor.WHITE, """
+            | | | | | | | | |
+            | | |p| | | | | |
+            | | | |p| | | | |
+            |K|P| | | | | |r|
+            | |R| | | |p| |k|
+            | | | | | | | | |
+            | | | | |P| |P| |
+            | | | | | | | | |
+            """);
+
+    private static final Map<Character, ChessPiece.PieceType> CHAR_TO_TYPE = Map.of(
+            'p', ChessPiece.PieceType.PAWN,
+            'n', ChessPiece.PieceType.KNIGHT,
+            'r', ChessPiece.PieceType.ROOK,
+            'q', ChessPiece.PieceType.QUEEN,
+            'k', ChessPiece.PieceType.KING,
+            'b', ChessPiece.PieceType.BISHOP);
+
+    private final ChessGame.TeamColor sideToMove;
+    private final String boardText;
+
+    Positions(ChessGame.TeamColor sideToMove, String boardText) {
+        this.sideToMove = sideToMove;
+        this.boardText = boardText;
+    }
+
+    /**
+     * @return a fresh game set up at this position
+     */
+    public ChessGame newGame() {
+        ChessGame game = new ChessGame();
+        game.setBoard(loadBoard(boardText));
+        game.setTeamTurn(sideToMove);
+        return game;
+    }
+
+    private static ChessBoard loadBoard(String boardText) {
+        ChessBoard board = new ChessBoard();
+        int row = 8;
+        int column = 1;
+        for (char c : boardText.toCharArray()) {
+            switch (c) {
+                case '\n' -> {
+                    column = 1;
+                    row--;
+                }
+                case ' ' -> column++;
+                case '|' -> {
+                }
+                default -> {
+                    ChessGame.TeamColor color = Character.isLowerCase(c)
+                            ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+                    ChessPiece.PieceType type = CHAR_TO_TYPE.get(Character.toLowerCase(c));
+                    board.addPiece(new ChessPosition(row, column), new ChessPiece(color, type));
+                    column++;
+                }
+            }
+        }
+        return board;
+    }
+}
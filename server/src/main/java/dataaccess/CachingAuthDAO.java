@@ -0,0 +1,180 @@
+package dataaccess;
+
+import model.AuthData;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps recent {@link #getAuth} results in memory in front of another {@link AuthDAO},
+ * since every REST call and WebSocket command looks its token up.
+ * <p>
+ * Found tokens are kept for {@code ttlMillis}, and unknown tokens (a null result) for
+ * {@code negativeTtlMillis} so repeated bad tokens do not reach the database either.
+ * Logging out or clearing goes through this DAO and drops the cached entries straight
+ * away; a lookup that was already reading the old answer from the database when that
+ * happened does not cache it. Tokens deleted behind this DAO's back stay valid here
+ * until their entry expires.
+ * <p>
+ * At most {@code capacity} tokens are cached; when full, the least recently used one is
+ * dropped. Expired entries are replaced when their token is next looked up.
+ * <p>
+ * Code that holds on to a token's identity itself, such as a WebSocket session, can
+ * register a revocation listener to hear when that identity stops being valid.
+ */
+public class CachingAuthDAO implements AuthDAO {
+
+    private record Entry(AuthData auth, long expiresAt) {
+    }
+
+    private final AuthDAO delegate;
+    private final int capacity;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final LongSupplier clock;
+    // Access-ordered, so the eldest entry is the least recently used; guarded by itself
+    private final Map<String, Entry> entries;
+    // Bumped by every invalidation, so a lookup can tell whether its database read is still current
+    private final AtomicLong invalidations = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final List<Consumer<String>> revocationListeners = new CopyOnWriteArrayList<>();
+
+    public CachingAuthDAO(AuthDAO delegate, int capacity, long ttlMillis, long negativeTtlMillis) {
+        this(delegate, capacity, ttlMillis, negativeTtlMillis, System::nanoTime);
+    }
+
+    CachingAuthDAO(AuthDAO delegate, int capacity, long ttlMillis, long negativeTtlMillis, LongSupplier clock) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.delegate = delegate;
+        this.capacity = capacity;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis);
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    @Override
+    public void createAuth(AuthData auth) throws DataAccessException {
+        delegate.createAuth(auth);
+        // a new token is normally used right away; this also replaces any negative entry for it
+        invalidate(auth.authToken());
+        put(auth.authToken(), new Entry(auth, clock.getAsLong() + ttlNanos));
+    }
+
+    @Override
+    public AuthData getAuth(String token) throws DataAccessException {
+        if (token == null) {
+            return delegate.getAuth(null);
+        }
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(token);
+        }
+        if (entry != null && clock.getAsLong() - entry.expiresAt() < 0) {
+            hits.increment();
+            return entry.auth();
+        }
+        misses.increment();
+
+        long before = invalidations.get();
+        AuthData auth = delegate.getAuth(token);
+        long ttl = auth != null ? ttlNanos : negativeTtlNanos;
+        if (ttl > 0 && invalidations.get() == before) {
+            Entry loaded = new Entry(auth, clock.getAsLong() + ttl);
+            synchronized (entries) {
+                // invalidations happen under this lock too, so none can slip in between
+                if (invalidations.get() == before) {
+                    entries.put(token, loaded);
+                }
+            }
+        }
+        return auth;
+    }
+
+    @Override
+    public void deleteAuth(String token) throws DataAccessException {
+        try {
+            delegate.deleteAuth(token);
+        } finally {
+            if (token != null) {
+                invalidate(token);
+                revoked(token);
+            }
+        }
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        try {
+            delegate.clear();
+        } finally {
+            synchronized (entries) {
+                invalidations.incrementAndGet();
+                entries.clear();
+            }
+            revoked(null);
+        }
+    }
+
+    /**
+     * Registers a listener called, on the thread doing the revoking, with each token deleted
+     * through this DAO, or with null once every token has been cleared.
+     */
+    public void addRevocationListener(Consumer<String> listener) {
+        revocationListeners.add(listener);
+    }
+
+    private void revoked(String token) {
+        for (Consumer<String> listener : revocationListeners) {
+            listener.accept(token);
+        }
+    }
+
+    /**
+     * Drops a token's cached entry, so its next lookup goes to the database.
+     */
+    public void invalidate(String token) {
+        if (token == null) {
+            return;
+        }
+        synchronized (entries) {
+            invalidations.incrementAndGet();
+            entries.remove(token);
+        }
+    }
+
+    private void put(String token, Entry entry) {
+        synchronized (entries) {
+            entries.put(token, entry);
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
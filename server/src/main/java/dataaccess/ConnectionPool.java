@@ -0,0 +1,409 @@
+package dataaccess;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A small JDBC connection pool.
+ * <p>
+ * Connections handed out are proxies: closing one returns the physical connection to
+ * the pool instead of closing it, so DAO code keeps its try-with-resources blocks.
+ * <ul>
+ *   <li>At most {@code maxSize} connections exist; a borrower waits up to
+ *   {@code acquireTimeoutMillis} for one and then gets an {@link SQLTimeoutException}.</li>
+ *   <li>Idle connections are reused newest first, and are checked with
+ *   {@link Connection#isValid} before being handed out unless they were returned
+ *   within the last half second.</li>
+ *   <li>A background task closes connections idle longer than {@code idleTimeoutMillis},
+ *   keeps at least {@code minSize} open, and reports (once, with the borrower's stack
+ *   trace) any connection held longer than {@code leakThresholdMillis}. Leak detection
+ *   is off when that is 0, and then no stack trace is taken when a connection is borrowed.</li>
+ *   <li>Each connection keeps up to {@code statementCacheSize} prepared statements open,
+ *   keyed by SQL text (see {@link StatementCache}); 0 turns the cache off.</li>
+ * </ul>
+ */
+public class ConnectionPool implements DataSource, AutoCloseable {
+
+    /** Opens a new physical connection. */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    public record Settings(int minSize, int maxSize, long idleTimeoutMillis,
+                           long acquireTimeoutMillis, long leakThresholdMillis, int statementCacheSize) {
+        public Settings {
+            if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+                throw new IllegalArgumentException("Pool needs 0 <= minSize <= maxSize and maxSize >= 1");
+            }
+            if (statementCacheSize < 0) {
+                throw new IllegalArgumentException("statementCacheSize cannot be negative");
+            }
+        }
+    }
+
+    // Connections returned this recently are handed out again without a validation round trip
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long HOUSEKEEPING_PERIOD_MILLIS = 5_000;
+    private static final Logger LOG = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private final ConnectionFactory factory;
+    private final Settings settings;
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * Creates a pool and starts its housekeeping task. No connections are opened until
+     * they are borrowed or {@link #fillToMinimum()} is called.
+     */
+    public static ConnectionPool create(ConnectionFactory factory, Settings settings) {
+        ConnectionPool pool = new ConnectionPool(factory, settings);
+        pool.housekeeper.scheduleAtFixedRate(pool::housekeeping,
+                HOUSEKEEPING_PERIOD_MILLIS, HOUSEKEEPING_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+        return pool;
+    }
+
+    private ConnectionPool(ConnectionFactory factory, Settings settings) {
+        this.factory = factory;
+        this.settings = settings;
+        this.permits = new Semaphore(settings.maxSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(settings.acquireTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("Timed out after " + settings.acquireTimeoutMillis()
+                        + " ms waiting for a connection (" + borrowed.size() + " in use)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a connection", e);
+        }
+
+        try {
+            PooledConnection pooled = takeIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(factory.open());
+            }
+            pooled.borrow();
+            borrowed.add(pooled);
+            return pooled.proxy;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return a valid idle connection, or null if there is none
+     */
+    private PooledConnection takeIdle() {
+        while (true) {
+            PooledConnection pooled;
+            synchronized (idle) {
+                pooled = idle.pollFirst();
+            }
+            if (pooled == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() - pooled.returnedAt < VALIDATION_BYPASS_MILLIS || isValid(pooled)) {
+                return pooled;
+            }
+            closeQuietly(pooled);
+        }
+    }
+
+    private void giveBack(PooledConnection pooled) {
+        if (!borrowed.remove(pooled)) {
+            return;
+        }
+        try {
+            if (closed || pooled.physical.isClosed()) {
+                closeQuietly(pooled);
+                return;
+            }
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            pooled.returnedAt = System.currentTimeMillis();
+            synchronized (idle) {
+                idle.addFirst(pooled);
+            }
+        } catch (SQLException e) {
+            closeQuietly(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void housekeeping() {
+        long now = System.currentTimeMillis();
+        if (settings.leakThresholdMillis() > 0) {
+            for (PooledConnection pooled : borrowed) {
+                if (!pooled.leakReported && now - pooled.borrowedAt > settings.leakThresholdMillis()) {
+                    pooled.leakReported = true;
+                    LOG.warn("Possible connection leak: connection held for {} ms", now - pooled.borrowedAt,
+                            pooled.borrowSite);
+                }
+            }
+        }
+
+        synchronized (idle) {
+            // oldest idle connections are at the tail
+            while (idle.size() + borrowed.size() > settings.minSize()
+                    && !idle.isEmpty() && now - idle.peekLast().returnedAt > settings.idleTimeoutMillis()) {
+                closeQuietly(idle.pollLast());
+            }
+        }
+        fillToMinimum();
+    }
+
+    /**
+     * Opens connections until at least {@code minSize} exist.
+     */
+    void fillToMinimum() {
+        while (!closed && idleCount() + borrowed.size() < settings.minSize() && permits.tryAcquire()) {
+            try {
+                PooledConnection pooled = new PooledConnection(factory.open());
+                pooled.returnedAt = System.currentTimeMillis();
+                synchronized (idle) {
+                    idle.addLast(pooled);
+                }
+            } catch (SQLException e) {
+                return;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    public int idleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    public int activeCount() {
+        return borrowed.size();
+    }
+
+    /**
+     * @return how many prepareStatement calls, on any connection, reused a cached statement
+     */
+    public long statementCacheHits() {
+        return statementHits.sum();
+    }
+
+    public long statementCacheMisses() {
+        return statementMisses.sum();
+    }
+
+    /**
+     * @return the fraction of prepareStatement calls served from the statement caches, 0 before any
+     */
+    public double statementCacheHitRatio() {
+        long hits = statementHits.sum();
+        long total = hits + statementMisses.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        synchronized (idle) {
+            while (!idle.isEmpty()) {
+                closeQuietly(idle.pollFirst());
+            }
+        }
+    }
+
+    private static boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(PooledConnection pooled) {
+        try {
+            pooled.physical.close();
+        } catch (SQLException ignored) {
+            // already broken; nothing more to do
+        }
+    }
+
+    /**
+     * A physical connection and the proxy borrowers see. The proxy turns close() into
+     * a return to the pool and refuses use after that.
+     */
+    private final class PooledConnection implements InvocationHandler {
+        final Connection physical;
+        final Connection proxy;
+        // null when statement caching is off
+        final StatementCache statements;
+        volatile long borrowedAt;
+        volatile long returnedAt;
+        volatile Throwable borrowSite;
+        volatile boolean leakReported;
+        private volatile boolean open;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, this);
+            this.statements = settings.statementCacheSize() == 0 ? null
+                    : new StatementCache(physical, proxy, settings.statementCacheSize(), statementHits, statementMisses);
+        }
+
+        void borrow() {
+            borrowedAt = System.currentTimeMillis();
+            // only worth the cost of a stack trace when someone will look at it
+            borrowSite = settings.leakThresholdMillis() > 0 ? new Throwable("Connection borrowed here") : null;
+            leakReported = false;
+            open = true;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (open) {
+                        open = false;
+                        if (statements != null) {
+                            statements.releaseAll();
+                        }
+                        giveBack(this);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return !open || physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled" + physical;
+                }
+                // the physical connection stays behind the pool: a caller holding it could
+                // close it or keep using it after returning the proxy
+                case "unwrap" -> {
+                    Class<?> iface = (Class<?>) args[0];
+                    if (iface.isInstance(proxy)) {
+                        return proxy;
+                    }
+                    throw new SQLException("Pooled connections cannot be unwrapped to " + iface.getName());
+                }
+                case "isWrapperFor" -> {
+                    return ((Class<?>) args[0]).isInstance(proxy);
+                }
+                default -> {
+                    if (!open) {
+                        throw new SQLException("Connection has been returned to the pool");
+                    }
+                }
+            }
+            if (statements != null && method.getName().equals("prepareStatement")) {
+                // prepareStatement(sql) and prepareStatement(sql, autoGeneratedKeys) are cached;
+                // the forms taking column lists or result set options are rare enough to pass through
+                Class<?>[] types = method.getParameterTypes();
+                if (types.length == 1) {
+                    return statements.prepare((String) args[0], Statement.NO_GENERATED_KEYS);
+                }
+                if (types.length == 2 && types[1] == int.class) {
+                    return statements.prepare((String) args[0], (Integer) args[1]);
+                }
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // ----------------- DataSource -----------------
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pool connections use the configured credentials");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
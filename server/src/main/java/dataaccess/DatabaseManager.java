@@ -8,6 +8,15 @@ public class DatabaseManager {
     private static String dbUsername;
     private static String dbPassword;
     private static String connectionUrl;
+    // Prepare statements on the server rather than in the driver; pays off with the statement cache
+    private static boolean serverPrepStmts;
+    // How WriteBehindGameDAO saves changed games
+    private static WriteBehindGameDAO.Durability gameStoreDurability;
+    private static long gameStoreFlushIntervalMillis;
+    private static int gameStoreCapacity;
+    private static ConnectionPool.Settings poolSettings;
+    // Created on first use, after createDatabase() has had a chance to run
+    private static volatile ConnectionPool pool;
 
     /*
      * Load the database information for the db.properties file.
@@ -30,10 +39,10 @@ public class DatabaseManager {
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
-     * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
-     * The easiest way to do that is with a try-with-resource block.
+     * Borrows a connection to the database from the shared {@link ConnectionPool}; its
+     * catalog is set from db.properties. Closing the connection returns it to the pool,
+     * so you must still close it when you are done with it. The easiest way to do that
+     * is with a try-with-resource block.
      * <br/>
      * <code>
      * try (var conn = DatabaseManager.getConnection()) {
@@ -44,14 +53,72 @@ public class DatabaseManager {
     static Connection getConnection() throws DataAccessException {
         try {
             //do not wrap the following line with a try-with-resources
-            var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
-            conn.setCatalog(databaseName);
-            return conn;
+            return pool().getConnection();
         } catch (SQLException ex) {
             throw new DataAccessException("failed to get connection", ex);
         }
     }
 
+    /**
+     * The pool behind {@link #getConnection()}, for code that wants a {@link javax.sql.DataSource}.
+     */
+    public static ConnectionPool pool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DatabaseManager.class) {
+                current = pool;
+                if (current == null) {
+                    current = ConnectionPool.create(DatabaseManager::openConnection, poolSettings);
+                    current.fillToMinimum();
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Closes the shared pool if one was created; the next {@link #pool()} call creates a new one.
+     */
+    public static void closePool() {
+        ConnectionPool current;
+        synchronized (DatabaseManager.class) {
+            current = pool;
+            pool = null;
+        }
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private static Connection openConnection() throws SQLException {
+        Properties info = new Properties();
+        if (dbUsername != null) {
+            info.setProperty("user", dbUsername);
+        }
+        if (dbPassword != null) {
+            info.setProperty("password", dbPassword);
+        }
+        info.setProperty("useServerPrepStmts", Boolean.toString(serverPrepStmts));
+        // send executeBatch() as one round trip rather than one per row
+        info.setProperty("rewriteBatchedStatements", "true");
+        var conn = DriverManager.getConnection(connectionUrl, info);
+        conn.setCatalog(databaseName);
+        return conn;
+    }
+
+    static WriteBehindGameDAO.Durability gameStoreDurability() {
+        return gameStoreDurability;
+    }
+
+    static long gameStoreFlushIntervalMillis() {
+        return gameStoreFlushIntervalMillis;
+    }
+
+    static int gameStoreCapacity() {
+        return gameStoreCapacity;
+    }
+
     private static void loadPropertiesFromResources() {
         try (var propStream = Thread.currentThread().getContextClassLoader().getResourceAsStream("db.properties")) {
             if (propStream == null) {
@@ -73,5 +140,20 @@ public class DatabaseManager {
         var host = props.getProperty("db.host");
         var port = Integer.parseInt(props.getProperty("db.port"));
         connectionUrl = String.format("jdbc:mysql://%s:%d", host, port);
+
+        // Pool sizing and timeouts, all optional; a leak threshold of 0 turns leak reports off
+        poolSettings = new ConnectionPool.Settings(
+                Integer.parseInt(props.getProperty("db.pool.minSize", "2")),
+                Integer.parseInt(props.getProperty("db.pool.maxSize", "10")),
+                Long.parseLong(props.getProperty("db.pool.idleTimeoutMillis", "300000")),
+                Long.parseLong(props.getProperty("db.pool.acquireTimeoutMillis", "5000")),
+                Long.parseLong(props.getProperty("db.pool.leakThresholdMillis", "30000")),
+                Integer.parseInt(props.getProperty("db.pool.statementCacheSize", "32")));
+        serverPrepStmts = Boolean.parseBoolean(props.getProperty("db.serverPrepStmts", "false"));
+
+        // sync, async or group-commit; see WriteBehindGameDAO
+        gameStoreDurability = WriteBehindGameDAO.Durability.parse(props.getProperty("db.games.durability", "async"));
+        gameStoreFlushIntervalMillis = Long.parseLong(props.getProperty("db.games.flushIntervalMillis", "100"));
+        gameStoreCapacity = Integer.parseInt(props.getProperty("db.games.capacity", "1024"));
     }
 }
@@ -1,6 +1,7 @@
 package dataaccess;
 
 import model.GameData;
+import java.util.Collection;
 import java.util.List;
 
 public interface GameDAO {
@@ -8,6 +9,14 @@ public interface GameDAO {
     int createGame(GameData game) throws DataAccessException;
     GameData getGame(int gameId) throws DataAccessException;
     void updateGame(GameData game) throws DataAccessException;
+
+    /** Writes several games at once; stores that can batch the writes should override this */
+    default void updateGames(Collection<GameData> games) throws DataAccessException {
+        for (GameData game : games) {
+            updateGame(game);
+        }
+    }
+
     List<GameData> getAllGames() throws DataAccessException;
 
     void clear() throws DataAccessException;
@@ -1,6 +1,7 @@
 package dataaccess;
 
 import model.AuthData;
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -9,10 +10,21 @@ import java.sql.SQLException;
 
 public class MySqlAuthDAO implements AuthDAO {
 
+    // Connections come from the shared pool unless a test supplies its own source
+    private final DataSource dataSource;
+
+    public MySqlAuthDAO() {
+        this(DatabaseManager.pool());
+    }
+
+    public MySqlAuthDAO(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
     @Override
     public void createAuth(AuthData auth) throws DataAccessException {
         String sql = "INSERT INTO auth (token, username) VALUES (?, ?)";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, auth.authToken());
             stmt.setString(2, auth.username());
@@ -25,7 +37,7 @@ public class MySqlAuthDAO implements AuthDAO {
     @Override
     public AuthData getAuth(String token) throws DataAccessException {
         String sql = "SELECT * FROM auth WHERE token = ?";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, token);
             try (ResultSet rs = stmt.executeQuery()) {
@@ -45,7 +57,7 @@ public class MySqlAuthDAO implements AuthDAO {
     @Override
     public void deleteAuth(String token) throws DataAccessException {
         String sql = "DELETE FROM auth WHERE token = ?";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, token);
             stmt.executeUpdate();
@@ -57,7 +69,7 @@ public class MySqlAuthDAO implements AuthDAO {
     @Override
     public void clear() throws DataAccessException {
         String sql = "DELETE FROM auth";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.executeUpdate();
         } catch (SQLException e) {
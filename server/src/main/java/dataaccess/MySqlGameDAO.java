@@ -3,18 +3,35 @@ package dataaccess;
 import com.google.gson.Gson;
 import model.GameData;
 import chess.ChessGame;
+
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public class MySqlGameDAO implements GameDAO {
 
+    private static final String UPDATE_SQL =
+            "UPDATE games SET game_name = ?, white_username = ?, black_username = ?, game_state = ? WHERE game_id = ?";
+
     private final Gson gson = new Gson();
 
+    // Connections come from the shared pool unless a test supplies its own source
+    private final DataSource dataSource;
+
+    public MySqlGameDAO() {
+        this(DatabaseManager.pool());
+    }
+
+    public MySqlGameDAO(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
     @Override
     public int createGame(GameData game) throws DataAccessException {
         String sql = "INSERT INTO games (game_name, white_username, black_username, game_state) VALUES (?, ?, ?, ?)";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setString(1, game.gameName());
             stmt.setString(2, game.whiteUsername());
@@ -38,7 +55,7 @@ public class MySqlGameDAO implements GameDAO {
     @Override
     public GameData getGame(int gameId) throws DataAccessException {
         String sql = "SELECT * FROM games WHERE game_id = ?";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, gameId);
             try (ResultSet rs = stmt.executeQuery()) {
@@ -61,26 +78,58 @@ public class MySqlGameDAO implements GameDAO {
 
     @Override
     public void updateGame(GameData game) throws DataAccessException {
-        String sql = "UPDATE games SET game_name = ?, white_username = ?, black_username = ?, game_state = ? WHERE game_id = ?";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, game.gameName());
-            stmt.setString(2, game.whiteUsername());
-            stmt.setString(3, game.blackUsername());
-            stmt.setString(4, gson.toJson(game.game()));
-            stmt.setInt(5, game.gameID());
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
+            bindUpdate(stmt, game);
             stmt.executeUpdate();
         } catch (SQLException e) {
             throw new DataAccessException("Failed to update game", e);
         }
     }
 
+    /**
+     * Updates all the games with one batched statement in a single transaction, so either
+     * every game is written or none is.
+     */
+    @Override
+    public void updateGames(Collection<GameData> games) throws DataAccessException {
+        if (games.isEmpty()) {
+            return;
+        }
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
+                for (GameData game : games) {
+                    bindUpdate(stmt, game);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to update games", e);
+        }
+    }
+
+    private void bindUpdate(PreparedStatement stmt, GameData game) throws SQLException {
+        stmt.setString(1, game.gameName());
+        stmt.setString(2, game.whiteUsername());
+        stmt.setString(3, game.blackUsername());
+        stmt.setString(4, gson.toJson(game.game()));
+        stmt.setInt(5, game.gameID());
+    }
+
 
     @Override
     public List<GameData> getAllGames() throws DataAccessException {
         List<GameData> games = new ArrayList<>();
         String sql = "SELECT * FROM games";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
@@ -102,7 +151,7 @@ public class MySqlGameDAO implements GameDAO {
     @Override
     public void clear() throws DataAccessException {
         String sql = "DELETE FROM games";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.executeUpdate();
         } catch (SQLException e) {
@@ -1,6 +1,7 @@
 package dataaccess;
 
 import model.UserData;
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -8,10 +9,21 @@ import java.sql.SQLException;
 
 public class MySqlUserDAO implements UserDAO {
 
+    // Connections come from the shared pool unless a test supplies its own source
+    private final DataSource dataSource;
+
+    public MySqlUserDAO() {
+        this(DatabaseManager.pool());
+    }
+
+    public MySqlUserDAO(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
     @Override
     public void createUser(UserData user) throws DataAccessException {
         String sql = "INSERT INTO users (username, password, email) VALUES (?, ?, ?)";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, user.username());
             stmt.setString(2, user.password());
@@ -25,7 +37,7 @@ public class MySqlUserDAO implements UserDAO {
     @Override
     public UserData getUser(String username) throws DataAccessException {
         String sql = "SELECT * FROM users WHERE username = ?";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, username);
             try (ResultSet rs = stmt.executeQuery()) {
@@ -46,7 +58,7 @@ public class MySqlUserDAO implements UserDAO {
     @Override
     public void clear() throws DataAccessException {
         String sql = "DELETE FROM users";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.executeUpdate();
         } catch (SQLException e) {
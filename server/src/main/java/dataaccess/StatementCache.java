@@ -0,0 +1,211 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The prepared statements of one pooled connection, kept open and keyed by their SQL
+ * text so that preparing the same query again skips parsing it (and, with server-side
+ * prepared statements, skips the round trip that prepares it on the server).
+ * <p>
+ * Statements handed out are proxies: closing one clears its parameters and keeps it
+ * for the next caller. Past {@code capacity} statements the least recently used one is
+ * closed. If a statement is prepared again while its cached copy is still open, the
+ * second caller gets a plain statement that is really closed when they close it, or
+ * when the connection goes back to the pool if they never do.
+ * <p>
+ * Only the thread that has borrowed the connection uses its cache, so it is not
+ * synchronized.
+ */
+final class StatementCache {
+
+    private record Key(String sql, int autoGeneratedKeys) {
+    }
+
+    private final Connection physical;
+    private final Connection owner;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final Map<Key, CachedStatement> statements;
+    // Uncached statements prepared while the cached one for the same SQL was in use
+    private final List<CachedStatement> overflow = new ArrayList<>();
+
+    /**
+     * @param physical the connection statements are prepared on
+     * @param owner    the pooled proxy for it, which statements report as their connection
+     */
+    StatementCache(Connection physical, Connection owner, int capacity, LongAdder hits, LongAdder misses) {
+        this.physical = physical;
+        this.owner = owner;
+        this.hits = hits;
+        this.misses = misses;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedStatement> eldest) {
+                if (size() <= capacity) {
+                    return false;
+                }
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @param autoGeneratedKeys as for {@link Connection#prepareStatement(String, int)};
+     *                          {@link Statement#NO_GENERATED_KEYS} for the one-argument form
+     */
+    PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        Key key = new Key(sql, autoGeneratedKeys);
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.lent) {
+            hits.increment();
+            return cached.lend();
+        }
+
+        misses.increment();
+        PreparedStatement statement = autoGeneratedKeys == Statement.NO_GENERATED_KEYS
+                ? physical.prepareStatement(sql)
+                : physical.prepareStatement(sql, autoGeneratedKeys);
+        CachedStatement fresh = new CachedStatement(statement);
+        if (cached == null) {
+            statements.put(key, fresh);
+        } else {
+            fresh.cached = false; // the cached one is in use; this one is only borrowed once
+            overflow.add(fresh);
+        }
+        return fresh.lend();
+    }
+
+    /**
+     * Takes back statements the borrower left open, as the connection goes back to the pool.
+     */
+    void releaseAll() {
+        for (CachedStatement statement : new ArrayList<>(statements.values())) {
+            if (statement.lent) {
+                statement.release();
+            }
+        }
+        for (CachedStatement statement : new ArrayList<>(overflow)) {
+            statement.release();
+        }
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    /**
+     * A physical statement and the proxy callers see. The proxy turns close() into a
+     * return to the cache and refuses use after that.
+     */
+    private final class CachedStatement implements InvocationHandler {
+        final PreparedStatement statement;
+        final PreparedStatement proxy;
+        // Still in the cache; statements that are not are closed when released
+        boolean cached = true;
+        boolean lent;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        PreparedStatement lend() {
+            lent = true;
+            return proxy;
+        }
+
+        void release() {
+            lent = false;
+            if (!cached) {
+                overflow.remove(this);
+                closeQuietly();
+                return;
+            }
+            try {
+                statement.clearParameters();
+                statement.clearBatch();
+            } catch (SQLException e) {
+                cached = false;
+                statements.values().remove(this);
+                closeQuietly();
+            }
+        }
+
+        void evict() {
+            cached = false;
+            if (!lent) {
+                closeQuietly();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+                // the connection is probably gone too; nothing more to do
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (lent) {
+                        release();
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return !lent || statement.isClosed();
+                }
+                case "getConnection" -> {
+                    return owner;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Cached" + statement;
+                }
+                // the physical statement would hand out the physical connection
+                case "unwrap" -> {
+                    Class<?> iface = (Class<?>) args[0];
+                    if (iface.isInstance(proxy)) {
+                        return proxy;
+                    }
+                    throw new SQLException("Cached statements cannot be unwrapped to " + iface.getName());
+                }
+                case "isWrapperFor" -> {
+                    return ((Class<?>) args[0]).isInstance(proxy);
+                }
+                default -> {
+                    if (!lent) {
+                        throw new SQLException("Statement has been closed");
+                    }
+                }
+            }
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
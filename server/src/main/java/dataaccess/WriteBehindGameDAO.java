@@ -0,0 +1,374 @@
+package dataaccess;
+
+import chess.ChessGame;
+import model.GameData;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps games in memory as the authoritative copy, in front of a {@link GameDAO} that
+ * stays the durable store.
+ * <p>
+ * A game is read from the store the first time it is asked for; after that reads stay
+ * in memory until it is dropped. New games are inserted straight away, since the store
+ * assigns their IDs. Updates reach the store as follows:
+ * <ul>
+ *   <li>{@link Durability#SYNC}: written through before {@code updateGame} returns.</li>
+ *   <li>{@link Durability#ASYNC}: applied in memory and {@code updateGame} returns at once.
+ *   A background thread waits {@code flushIntervalMillis} after the first unsaved change,
+ *   then writes every changed game in one {@link GameDAO#updateGames} batch. Several
+ *   changes to one game in that time become a single write. A crash loses at most that
+ *   window. A failed flush is logged and its games are written again with the next one.</li>
+ *   <li>{@link Durability#GROUP_COMMIT}: flushed the same way, but {@code updateGame} waits
+ *   until the batch containing its change is written, and readers only see the change
+ *   after that. Writers that arrive while a batch is being written share the next one. If
+ *   the batch fails its writers get the error and their changes are dropped. A short or
+ *   zero interval suits this mode.</li>
+ * </ul>
+ * At most {@code capacity} saved games are held, least recently used dropped first; games
+ * with unsaved changes are always kept. Finished games are dropped once saved, as they are
+ * rarely read again. Games are copied going in and out, so callers can change what they got
+ * without affecting the stored copy or a flush in progress. {@link #close()} writes whatever
+ * is still pending.
+ */
+public class WriteBehindGameDAO implements GameDAO, AutoCloseable {
+
+    public enum Durability {
+        SYNC, ASYNC, GROUP_COMMIT;
+
+        /** Parses "sync", "async" or "group-commit" */
+        public static Durability parse(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(WriteBehindGameDAO.class);
+    private static final long RETRY_DELAY_MILLIS = 1_000;
+
+    private final GameDAO store;
+    private final Durability durability;
+    private final long flushIntervalMillis;
+    private final int capacity;
+
+    private final Object lock = new Object();
+    // Games held in memory, least recently used first; guarded by lock, as is everything below
+    private final Map<Integer, GameData> games = new LinkedHashMap<>(16, 0.75f, true);
+    // Bumped whenever a game is dropped, so a read from the store can tell whether it is still current
+    private long drops;
+    // Changed games not yet written, the batch being written, and the flush that will write them
+    private Map<Integer, GameData> dirty = new LinkedHashMap<>();
+    private Map<Integer, GameData> writing = Map.of();
+    private CompletableFuture<Void> nextFlush = new CompletableFuture<>();
+    private boolean closed;
+    private Thread flusher;
+
+    // Held while writing to the store, so batches land in the order they were taken
+    private final Object writeLock = new Object();
+
+    /** A store over MySQL, configured from db.properties */
+    public static WriteBehindGameDAO create() {
+        return create(new MySqlGameDAO(), DatabaseManager.gameStoreDurability(),
+                DatabaseManager.gameStoreFlushIntervalMillis(), DatabaseManager.gameStoreCapacity());
+    }
+
+    /**
+     * Creates the DAO and, unless it writes through, starts the thread that flushes it.
+     *
+     * @param capacity how many saved games to hold in memory
+     */
+    public static WriteBehindGameDAO create(GameDAO store, Durability durability, long flushIntervalMillis,
+                                            int capacity) {
+        WriteBehindGameDAO dao = new WriteBehindGameDAO(store, durability, flushIntervalMillis, capacity);
+        if (durability != Durability.SYNC) {
+            Thread flusher = new Thread(dao::flushLoop, "game-store-flusher");
+            flusher.setDaemon(true);
+            synchronized (dao.lock) {
+                dao.flusher = flusher;
+            }
+            flusher.start();
+        }
+        return dao;
+    }
+
+    private WriteBehindGameDAO(GameDAO store, Durability durability, long flushIntervalMillis, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.store = store;
+        this.durability = durability;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public int createGame(GameData game) throws DataAccessException {
+        int id = store.createGame(game);
+        GameData created = copyOf(new GameData(id, game.gameName(), game.whiteUsername(), game.blackUsername(), game.game()));
+        synchronized (lock) {
+            hold(created);
+        }
+        return id;
+    }
+
+    @Override
+    public GameData getGame(int gameId) throws DataAccessException {
+        GameData game;
+        long dropsBefore;
+        synchronized (lock) {
+            game = games.get(gameId);
+            dropsBefore = drops;
+        }
+        if (game == null) {
+            GameData loaded = store.getGame(gameId);
+            if (loaded == null) {
+                return null;
+            }
+            synchronized (lock) {
+                game = games.get(gameId);
+                if (game == null) {
+                    game = loaded;
+                    // a game dropped meanwhile may have been saved after this read
+                    if (drops == dropsBefore) {
+                        hold(loaded);
+                    }
+                }
+            }
+        }
+        return copyOf(game);
+    }
+
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
+        GameData stored = copyOf(game);
+        if (durability == Durability.SYNC) {
+            synchronized (writeLock) {
+                store.updateGame(stored);
+                synchronized (lock) {
+                    hold(stored);
+                }
+            }
+            return;
+        }
+
+        CompletableFuture<Void> written;
+        boolean flusherStopped;
+        synchronized (lock) {
+            dirty.put(stored.gameID(), stored);
+            if (durability == Durability.ASYNC) {
+                hold(stored); // under group commit it is shown once its batch is written
+            }
+            written = nextFlush;
+            flusherStopped = closed;
+            lock.notifyAll();
+        }
+        if (flusherStopped) {
+            flush();
+        } else if (durability == Durability.GROUP_COMMIT) {
+            awaitFlush(written);
+        }
+    }
+
+    /**
+     * Reads every game from the store, with the ones held in memory taking the place of
+     * their possibly older stored versions.
+     */
+    @Override
+    public List<GameData> getAllGames() throws DataAccessException {
+        List<GameData> stored = store.getAllGames();
+        Map<Integer, GameData> held;
+        synchronized (lock) {
+            held = new HashMap<>(games); // copied rather than looked up, so listing does not count as use
+        }
+        List<GameData> all = new ArrayList<>();
+        for (GameData game : stored) {
+            GameData current = held.get(game.gameID());
+            all.add(current != null ? copyOf(current) : game);
+        }
+        return all;
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        synchronized (writeLock) {
+            CompletableFuture<Void> dropped;
+            synchronized (lock) {
+                dirty = new LinkedHashMap<>();
+                dropped = nextFlush;
+                nextFlush = new CompletableFuture<>();
+                games.clear();
+                drops++;
+            }
+            // writers waiting on changes that were just cleared away have nothing left to wait for
+            dropped.complete(null);
+            store.clear();
+        }
+    }
+
+    /**
+     * Stops the background flusher and writes any changes still pending.
+     */
+    @Override
+    public void close() throws DataAccessException {
+        Thread stopping;
+        synchronized (lock) {
+            closed = true;
+            stopping = flusher;
+            lock.notifyAll();
+        }
+        if (stopping != null) {
+            try {
+                stopping.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Writes every changed game to the store in one batch.
+     *
+     * @throws DataAccessException if the store failed; under {@link Durability#ASYNC} the
+     *                             games stay pending, otherwise their changes are dropped
+     */
+    void flush() throws DataAccessException {
+        synchronized (writeLock) {
+            Map<Integer, GameData> batch;
+            CompletableFuture<Void> done;
+            synchronized (lock) {
+                if (dirty.isEmpty()) {
+                    return;
+                }
+                batch = dirty;
+                done = nextFlush;
+                writing = batch;
+                dirty = new LinkedHashMap<>();
+                nextFlush = new CompletableFuture<>();
+            }
+            try {
+                store.updateGames(batch.values());
+            } catch (DataAccessException | RuntimeException e) {
+                synchronized (lock) {
+                    writing = Map.of();
+                    if (durability == Durability.ASYNC) {
+                        // changes made since the batch was taken are newer than the failed ones
+                        batch.forEach(dirty::putIfAbsent);
+                    }
+                }
+                done.completeExceptionally(e);
+                throw e;
+            }
+            synchronized (lock) {
+                writing = Map.of();
+                for (GameData saved : batch.values()) {
+                    // under async the held copy may be newer than the one saved
+                    GameData current = durability == Durability.GROUP_COMMIT ? saved : games.get(saved.gameID());
+                    if (current != null) {
+                        hold(current);
+                    }
+                }
+            }
+            done.complete(null);
+        }
+    }
+
+    /**
+     * Holds a game in memory, unless it is over and saved, then drops saved games past
+     * capacity. Must be called with the lock held.
+     */
+    private void hold(GameData game) {
+        int id = game.gameID();
+        if (game.isGameOver() && !isPending(id)) {
+            if (games.remove(id) != null) {
+                drops++;
+            }
+            return;
+        }
+        games.put(id, game);
+        Iterator<Integer> eldest = games.keySet().iterator();
+        while (games.size() > capacity && eldest.hasNext()) {
+            if (!isPending(eldest.next())) {
+                eldest.remove();
+                drops++;
+            }
+        }
+    }
+
+    private boolean isPending(int gameId) {
+        return dirty.containsKey(gameId) || writing.containsKey(gameId);
+    }
+
+    private void flushLoop() {
+        try {
+            while (true) {
+                synchronized (lock) {
+                    while (dirty.isEmpty() && !closed) {
+                        lock.wait();
+                    }
+                    // let more changes gather into this batch
+                    waitUnlessClosed(flushIntervalMillis);
+                    if (closed) {
+                        return; // close() writes what is left
+                    }
+                }
+                try {
+                    flush();
+                } catch (DataAccessException | RuntimeException e) {
+                    LOG.warn("Failed to write games to the store", e);
+                    if (durability == Durability.ASYNC) {
+                        synchronized (lock) {
+                            waitUnlessClosed(Math.max(flushIntervalMillis, RETRY_DELAY_MILLIS));
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            // stop; close() writes what is left
+        }
+    }
+
+    /**
+     * Waits on the lock, which must be held, until the time is up or the DAO is closed.
+     */
+    private void waitUnlessClosed(long millis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        long remaining;
+        while (!closed && (remaining = deadline - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+        }
+    }
+
+    private static void awaitFlush(CompletableFuture<Void> written) throws DataAccessException {
+        try {
+            written.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted waiting for the game to be saved", e);
+        } catch (ExecutionException e) {
+            throw new DataAccessException("Failed to save game", e.getCause());
+        }
+    }
+
+    public int pendingCount() {
+        synchronized (lock) {
+            return dirty.size();
+        }
+    }
+
+    private static GameData copyOf(GameData game) {
+        ChessGame chessGame = game.chessGame();
+        return chessGame == null ? game : game.withChessGame(chessGame.copy());
+    }
+}
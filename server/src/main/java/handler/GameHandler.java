@@ -6,6 +6,7 @@ import handler.exceptions.ForbiddenException;
 import handler.exceptions.UnauthorizedException;
 import io.javalin.http.Context;
 import model.GameData;
+import model.GamePosition;
 import service.GameService;
 import handler.exceptions.BadRequestException;
 
@@ -89,4 +90,29 @@ public class GameHandler {
 
         ctx.status(200);
     }
+
+    /** Get a game as it stood after a given ply (the current position without ?ply=) */
+    public void getPosition(Context ctx) throws BadRequestException, UnauthorizedException, DataAccessException {
+        String authToken = ctx.header("authorization");
+        if (authToken == null || authToken.isEmpty()) {
+            throw new BadRequestException("Missing authorization header");
+        }
+
+        int gameId;
+        Integer ply = null;
+        try {
+            gameId = Integer.parseInt(ctx.pathParam("gameID"));
+            String plyParam = ctx.queryParam("ply");
+            if (plyParam != null) {
+                ply = Integer.parseInt(plyParam);
+            }
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("gameID and ply must be numbers");
+        }
+
+        GamePosition position = service.getPosition(authToken, gameId, ply);
+
+        ctx.status(200);
+        ctx.result(gson.toJson(position));
+    }
 }
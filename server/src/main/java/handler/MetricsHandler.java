@@ -0,0 +1,59 @@
+package handler;
+
+import com.google.gson.Gson;
+import dataaccess.CachingAuthDAO;
+import dataaccess.ConnectionPool;
+import dataaccess.DataAccessException;
+import handler.exceptions.BadRequestException;
+import handler.exceptions.UnauthorizedException;
+import io.javalin.http.Context;
+import service.LegalMoveCache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Reports hit and miss counts of the server's caches to signed-in users */
+public class MetricsHandler {
+
+    private final Gson gson = new Gson();
+    private final CachingAuthDAO authCache;
+    private final LegalMoveCache moveCache;
+    private final ConnectionPool pool;
+
+    public MetricsHandler(CachingAuthDAO authCache, LegalMoveCache moveCache, ConnectionPool pool) {
+        this.authCache = authCache;
+        this.moveCache = moveCache;
+        this.pool = pool;
+    }
+
+    public void metrics(Context ctx) throws BadRequestException, UnauthorizedException, DataAccessException {
+        String authToken = ctx.header("authorization");
+        if (authToken == null || authToken.isEmpty()) {
+            throw new BadRequestException("Missing authorization header");
+        }
+        if (authCache.getAuth(authToken) == null) {
+            throw new UnauthorizedException("unauthorized");
+        }
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("authCache", counts(authCache.hits(), authCache.misses(), authCache.size()));
+        metrics.put("legalMoveCache", counts(moveCache.hits(), moveCache.misses(), moveCache.size()));
+
+        metrics.put("statementCache", counts(pool.statementCacheHits(), pool.statementCacheMisses(), null));
+        metrics.put("connections", Map.of("active", pool.activeCount(), "idle", pool.idleCount()));
+
+        ctx.status(200);
+        ctx.result(gson.toJson(metrics));
+    }
+
+    private static Map<String, Object> counts(long hits, long misses, Integer size) {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("hits", hits);
+        counts.put("misses", misses);
+        counts.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        if (size != null) {
+            counts.put("size", size);
+        }
+        return counts;
+    }
+}
@@ -15,7 +15,20 @@ import io.javalin.Javalin;
 
 public class Server {
 
+    // Cached (position, square) highlight results shared by all sessions
+    private static final int MOVE_CACHE_CAPACITY = 100_000;
+
+    private static final int PRECOMPUTE_THREADS = 2;
+    private static final int PRECOMPUTE_QUEUE = 256;
+
+    // Token lookups kept in memory; unknown tokens are remembered for less time
+    private static final int AUTH_CACHE_CAPACITY = 10_000;
+    private static final long AUTH_CACHE_TTL_MILLIS = 5 * 60_000;
+    private static final long AUTH_CACHE_NEGATIVE_TTL_MILLIS = 30_000;
+
     private Javalin app;
+    private MovePrecomputer precomputer;
+    private WriteBehindGameDAO gameDAO;
 
     // Run the server on the given port
     public int run(int port) {
@@ -29,16 +42,22 @@ public class Server {
         }
 
         // Initialize DAOs
-        AuthDAO authDAO = new MySqlAuthDAO();
+        CachingAuthDAO authDAO = new CachingAuthDAO(new MySqlAuthDAO(),
+                AUTH_CACHE_CAPACITY, AUTH_CACHE_TTL_MILLIS, AUTH_CACHE_NEGATIVE_TTL_MILLIS);
         UserDAO userDAO = new MySqlUserDAO();
-        GameDAO gameDAO = new MySqlGameDAO();
+        // Games live in memory and are written to MySQL behind the moves
+        gameDAO = WriteBehindGameDAO.create();
+
+        // Legal moves shared by highlight requests, warmed in the background after each move
+        LegalMoveCache moveCache = new LegalMoveCache(MOVE_CACHE_CAPACITY);
+        precomputer = new MovePrecomputer(moveCache, PRECOMPUTE_THREADS, PRECOMPUTE_QUEUE);
 
         // Initialize Services
-        ClearService clearService = new ClearService(authDAO, gameDAO, userDAO);
         RegisterService registerService = new RegisterService(userDAO, authDAO);
         LoginService loginService = new LoginService(userDAO, authDAO);
         LogoutService logoutService = new LogoutService(authDAO);
-        GameService gameService = new GameService(authDAO, gameDAO, userDAO);
+        GameService gameService = new GameService(authDAO, gameDAO, userDAO, precomputer);
+        ClearService clearService = new ClearService(authDAO, gameDAO, userDAO, gameService);
 
         // Initialize Handlers
         ClearHandler clearHandler = new ClearHandler(clearService);
@@ -46,6 +65,7 @@ public class Server {
         LoginHandler loginHandler = new LoginHandler(loginService);
         LogoutHandler logoutHandler = new LogoutHandler(logoutService);
         GameHandler gameHandler = new GameHandler(gameService);
+        MetricsHandler metricsHandler = new MetricsHandler(authDAO, moveCache, DatabaseManager.pool());
         ExceptionHandler exceptionHandler = new ExceptionHandler();
 
         // Create Javalin app
@@ -60,10 +80,14 @@ public class Server {
         app.get("/game", gameHandler::listGames);
         app.post("/game", gameHandler::createGame);
         app.put("/game", gameHandler::joinGame);
+        app.get("/game/{gameID}/position", gameHandler::getPosition);
+        app.get("/metrics", metricsHandler::metrics);
 
         // Websocket
-        ChessWebSocketHandler wsHandler = new ChessWebSocketHandler(gameService);
+        ChessWebSocketHandler wsHandler = new ChessWebSocketHandler(gameService, moveCache);
         app.ws("/ws", wsHandler::configure);
+        // Sessions trust the identity they connected with until their token is deleted
+        authDAO.addRevocationListener(wsHandler::revoke);
 
         System.out.println("WebSocket listening at ws://localhost:" + port + "/ws");
 
@@ -82,6 +106,18 @@ public class Server {
         if (app != null) {
             app.stop();
         }
+        if (precomputer != null) {
+            precomputer.close();
+        }
+        if (gameDAO != null) {
+            try {
+                gameDAO.close();
+            } catch (DataAccessException e) {
+                System.err.println("Failed to save games on shutdown: " + e.getMessage());
+            }
+        }
+        // after the games are saved, since saving them needs the pool
+        DatabaseManager.closePool();
     }
 
 
@@ -10,17 +10,27 @@ public class ClearService {
     private final AuthDAO authDAO;
     private final GameDAO gameDAO;
     private final UserDAO userDAO;
+    // Optional; its cached game timelines go with the games
+    private final GameService gameService;
 
     // Constructor saves the DAOs to fields
     public ClearService(AuthDAO authDAO, GameDAO gameDAO, UserDAO userDAO){
+        this(authDAO, gameDAO, userDAO, null);
+    }
+
+    public ClearService(AuthDAO authDAO, GameDAO gameDAO, UserDAO userDAO, GameService gameService) {
         this.authDAO = authDAO;
         this.gameDAO = gameDAO;
         this.userDAO = userDAO;
+        this.gameService = gameService;
     }
 
     public void clear() throws DataAccessException {
         userDAO.clear();
         gameDAO.clear();
         authDAO.clear();
+        if (gameService != null) {
+            gameService.clear();
+        }
     }
 }
\ No newline at end of file
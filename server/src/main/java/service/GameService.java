@@ -10,22 +10,47 @@ import handler.exceptions.BadRequestException;
 import handler.exceptions.ForbiddenException;
 import handler.exceptions.UnauthorizedException;
 import model.GameData;
+import model.GamePosition;
 import chess.ChessGame;
 import chess.ChessMove;
+import chess.GameTimeline;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class GameService {
 
+    // Plies between board checkpoints in a game's timeline
+    private static final int TIMELINE_INTERVAL = 16;
+    // Timelines kept for games in progress; the least recently reviewed is dropped past this
+    private static final int TIMELINE_CAPACITY = 256;
+
     private final AuthDAO authDAO;
     private final GameDAO gameDAO;
     private final UserDAO userDAO;
+    // Optional; warms the legal move cache for the next player after each move
+    private final MovePrecomputer precomputer;
+    // Checkpointed timelines of games in progress that have been reviewed, extended as moves arrive
+    private final Map<Integer, GameTimeline> timelines = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, GameTimeline> eldest) {
+                    return size() > TIMELINE_CAPACITY;
+                }
+            });
 
 
     public GameService(AuthDAO authDAO, GameDAO gameDAO, UserDAO userDAO) {
+        this(authDAO, gameDAO, userDAO, null);
+    }
+
+    public GameService(AuthDAO authDAO, GameDAO gameDAO, UserDAO userDAO, MovePrecomputer precomputer) {
         this.authDAO = authDAO;
         this.gameDAO = gameDAO;
         this.userDAO = userDAO;
+        this.precomputer = precomputer;
     }
     /** Returns the username associated with an auth token */
     public String getUsernameForAuth(String authToken) throws DataAccessException, UnauthorizedException {
@@ -109,9 +134,21 @@ public class GameService {
     }
 
 
-    /** Applies a move in a game */
-    public GameData makeMove(int gameId, String authToken, ChessMove move)
-            throws UnauthorizedException, BadRequestException, ForbiddenException, DataAccessException, InvalidMoveException {
+    /**
+     * Returns a single game for a caller that has already been authenticated, such as a
+     * WebSocket session that did so when it connected
+     */
+    public GameData getGame(int gameId) throws DataAccessException {
+        GameData game = gameDAO.getGame(gameId);
+        if (game == null) {
+            throw new DataAccessException("Error: game does not exist");
+        }
+        return game;
+    }
+
+    /** Returns a game as it stood after the given ply, or its current position if ply is null */
+    public GamePosition getPosition(String authToken, int gameId, Integer ply)
+            throws UnauthorizedException, BadRequestException, DataAccessException {
 
         var auth = authDAO.getAuth(authToken);
         if (auth == null) {
@@ -123,14 +160,77 @@ public class GameService {
             throw new BadRequestException("bad request");
         }
 
+        GameTimeline timeline = timeline(gameId, game.chessGame());
+        int plies = timeline.size();
+        if (ply == null || ply == plies) {
+            return new GamePosition(gameId, plies, plies, game.chessGame());
+        }
+        if (ply < 0 || ply > plies) {
+            throw new BadRequestException("ply must be between 0 and " + plies);
+        }
+        return new GamePosition(gameId, ply, plies, timeline.positionAt(ply));
+    }
+
+    /**
+     * Returns the moves played in a game after the given ply, for a reconnecting client
+     * that already has that position; null if the ply is not part of the game.
+     */
+    public List<ChessMove> getMovesSince(GameData game, int ply) {
+        GameTimeline timeline = timeline(game.gameID(), game.chessGame());
+        if (ply < 0 || ply > timeline.size()) {
+            return null;
+        }
+        return timeline.movesSince(ply);
+    }
+
+    private GameTimeline timeline(int gameId, ChessGame chessGame) {
+        GameTimeline timeline = timelines.get(gameId);
+        if (timeline == null || !timeline.update(chessGame)) {
+            // first look at this game, or its history no longer continues the cached one
+            timeline = new GameTimeline(chessGame, TIMELINE_INTERVAL);
+            if (chessGame.isGameOver()) {
+                // finished games no longer change; rebuilding on the rare review beats holding them
+                timelines.remove(gameId);
+            } else {
+                timelines.put(gameId, timeline);
+            }
+        }
+        return timeline;
+    }
+
+    /** Forgets every cached timeline, for when the games themselves are cleared */
+    public void clear() {
+        timelines.clear();
+    }
+
+    int timelineCount() {
+        return timelines.size();
+    }
+
+    /** Applies a move in a game */
+    public GameData makeMove(int gameId, String authToken, ChessMove move)
+            throws UnauthorizedException, BadRequestException, ForbiddenException, DataAccessException, InvalidMoveException {
+
+        return makeMoveAs(getUsernameForAuth(authToken), gameId, move);
+    }
+
+    /** Applies a move in a game for an already authenticated user */
+    public GameData makeMoveAs(String username, int gameId, ChessMove move)
+            throws BadRequestException, ForbiddenException, DataAccessException, InvalidMoveException {
+
+        GameData game = gameDAO.getGame(gameId);
+        if (game == null) {
+            throw new BadRequestException("bad request");
+        }
+
         ChessGame chessGame = game.chessGame();
 
         if (chessGame.getWinner() != null) {
             throw new ForbiddenException("game is over");
         }
 
-        String playerColor = auth.username().equals(game.whiteUsername()) ? "WHITE" :
-                auth.username().equals(game.blackUsername()) ? "BLACK" : null;
+        String playerColor = username.equals(game.whiteUsername()) ? "WHITE" :
+                username.equals(game.blackUsername()) ? "BLACK" : null;
 
         if (playerColor == null) {
             throw new ForbiddenException("not a player");
@@ -144,6 +244,13 @@ public class GameService {
         GameData updated = game.withChessGame(chessGame);
         gameDAO.updateGame(updated);
 
+        if (precomputer != null) {
+            precomputer.submit(chessGame);
+        }
+        if (chessGame.isGameOver()) {
+            timelines.remove(gameId);
+        }
+
         return updated; // IMPORTANT
     }
 
@@ -152,17 +259,18 @@ public class GameService {
     public String resignGame(String authToken, int gameId)
             throws UnauthorizedException, BadRequestException, ForbiddenException, DataAccessException {
 
-        var auth = authDAO.getAuth(authToken);
-        if (auth == null) {
-            throw new UnauthorizedException("unauthorized");
-        }
+        return resignGameAs(getUsernameForAuth(authToken), gameId);
+    }
+
+    /** Resign from a game for an already authenticated user */
+    public String resignGameAs(String username, int gameId)
+            throws BadRequestException, ForbiddenException, DataAccessException {
 
         GameData game = gameDAO.getGame(gameId);
         if (game == null) {
             throw new BadRequestException("bad request");
         }
 
-        String username = auth.username();
         String white = game.whiteUsername();
         String black = game.blackUsername();
 
@@ -187,6 +295,7 @@ public class GameService {
 
         GameData updated = game.withChessGame(chessGame);
         gameDAO.updateGame(updated);
+        timelines.remove(gameId);
 
         return loser;
     }
@@ -194,18 +303,17 @@ public class GameService {
     public String leaveGame(String authToken, int gameId)
             throws UnauthorizedException, DataAccessException {
 
-        var auth = authDAO.getAuth(authToken);
-        if (auth == null) {
-            throw new UnauthorizedException("unauthorized");
-        }
+        return leaveGameAs(getUsernameForAuth(authToken), gameId);
+    }
+
+    /** Leave a game for an already authenticated user */
+    public String leaveGameAs(String username, int gameId) throws DataAccessException {
 
         GameData game = gameDAO.getGame(gameId);
         if (game == null) {
             return null;
         }
 
-        String username = auth.username();
-
         GameData updated = game;
         if (username.equals(game.whiteUsername())) {
             updated = game.withWhite(null);
@@ -0,0 +1,184 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of {@link ChessGame#validMoves} results keyed by (position hash, square).
+ * <p>
+ * Highlight requests for the same piece in the same position are answered from here no
+ * matter which session or game they come from. The key is the game's 64-bit Zobrist
+ * {@link ChessGame#positionKey()}, so a false hit would need a hash collision; the moves
+ * are only ever shown as hints, and makeMove still checks legality itself.
+ * <p>
+ * Entries are split across segments by key, each an LRU map under its own lock, so
+ * concurrent lookups rarely contend. The capacity is divided between the segments, so
+ * the total size never exceeds it; a capacity below 16 uses fewer segments.
+ */
+public class LegalMoveCache {
+
+    private static final int SEGMENTS = 16;
+
+    private record Key(long position, int row, int col) {
+    }
+
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public LegalMoveCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        // a power of two, so a key's segment is a mask of its hash
+        int count = Math.min(SEGMENTS, Integer.highestOneBit(capacity));
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(capacity / count + (i < capacity % count ? 1 : 0));
+        }
+    }
+
+    /**
+     * Gets the legal moves of the piece at {@code position}, computing and caching them on a miss.
+     *
+     * @return the moves, or an empty list if the square is empty
+     */
+    public List<ChessMove> validMoves(ChessGame game, ChessPosition position) {
+        Key key = new Key(game.positionKey(), position.getRow(), position.getColumn());
+        Segment segment = segmentFor(key);
+
+        List<ChessMove> moves = segment.get(key);
+        if (moves != null) {
+            hits.increment();
+            return moves;
+        }
+        misses.increment();
+        Collection<ChessMove> computed = game.validMoves(position);
+        moves = computed == null ? List.of() : List.copyOf(computed);
+        segment.put(key, moves);
+        return moves;
+    }
+
+    /**
+     * Gets the legal moves of several squares at once. Squares not already cached are
+     * answered from one generation pass per team, which also caches that team's other pieces.
+     *
+     * @return moves per requested square, in request order; empty lists for empty squares
+     */
+    public Map<ChessPosition, List<ChessMove>> validMoves(ChessGame game, Collection<ChessPosition> positions) {
+        long position = game.positionKey();
+        Map<ChessPosition, List<ChessMove>> result = new LinkedHashMap<>();
+        Map<ChessGame.TeamColor, Map<ChessPosition, List<ChessMove>>> generated = new EnumMap<>(ChessGame.TeamColor.class);
+        for (ChessPosition square : positions) {
+            Key key = new Key(position, square.getRow(), square.getColumn());
+            List<ChessMove> moves = segmentFor(key).get(key);
+            if (moves != null) {
+                hits.increment();
+                result.put(square, moves);
+                continue;
+            }
+            misses.increment();
+            ChessPiece piece = game.getBoard().getPiece(square);
+            if (piece == null) {
+                moves = List.of();
+                segmentFor(key).put(key, moves);
+            } else {
+                moves = generated.computeIfAbsent(piece.getTeamColor(), team -> fill(game, team)).get(square);
+            }
+            result.put(square, moves);
+        }
+        return result;
+    }
+
+    /**
+     * Fills the cache for every piece of the side to move from a single generation pass.
+     */
+    public void precompute(ChessGame game) {
+        fill(game, game.getTeamTurn());
+    }
+
+    private Map<ChessPosition, List<ChessMove>> fill(ChessGame game, ChessGame.TeamColor team) {
+        Map<ChessPosition, List<ChessMove>> bySquare = new HashMap<>();
+        for (ChessPosition position : game.getBoard().getTeamPositions(team)) {
+            bySquare.put(position, new ArrayList<>());
+        }
+        for (ChessMove move : game.legalMoves(team)) {
+            bySquare.get(move.getStartPosition()).add(move);
+        }
+
+        long position = game.positionKey();
+        for (Map.Entry<ChessPosition, List<ChessMove>> entry : bySquare.entrySet()) {
+            List<ChessMove> moves = List.copyOf(entry.getValue());
+            entry.setValue(moves);
+            Key key = new Key(position, entry.getKey().getRow(), entry.getKey().getColumn());
+            segmentFor(key).put(key, moves);
+        }
+        return bySquare;
+    }
+
+    private Segment segmentFor(Key key) {
+        return segments[key.hashCode() & (segments.length - 1)];
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    private static final class Segment {
+        private final Map<Key, List<ChessMove>> entries;
+
+        Segment(int capacity) {
+            entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, List<ChessMove>> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        synchronized List<ChessMove> get(Key key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(Key key, List<ChessMove> moves) {
+            entries.put(key, moves);
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized void clear() {
+            entries.clear();
+        }
+    }
+}
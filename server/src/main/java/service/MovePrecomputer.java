@@ -0,0 +1,80 @@
+package service;
+
+import chess.ChessGame;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Works out the next player's legal moves in the background after each move, while
+ * they are still thinking, so their highlight requests hit the {@link LegalMoveCache}.
+ * <p>
+ * The pool and its queue are bounded. The work is only speculative, so when the queue
+ * is full the oldest pending position is dropped rather than blocking the move.
+ */
+public class MovePrecomputer implements AutoCloseable {
+
+    private final LegalMoveCache cache;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public MovePrecomputer(LegalMoveCache cache, int threads, int queueCapacity) {
+        this.cache = cache;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads(), this::dropOldest);
+    }
+
+    /**
+     * Queues the side to move's legal moves for computation. The game is copied here, on
+     * the caller's thread, so the worker never reads a game that is still changing.
+     */
+    public void submit(ChessGame game) {
+        if (game.isGameOver()) {
+            return;
+        }
+        ChessGame snapshot = game.copy();
+        executor.execute(() -> {
+            cache.precompute(snapshot);
+            completed.increment();
+        });
+    }
+
+    public long completed() {
+        return completed.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void dropOldest(Runnable task, ThreadPoolExecutor pool) {
+        if (pool.isShutdown()) {
+            return;
+        }
+        if (pool.getQueue().poll() != null) {
+            dropped.increment();
+        }
+        if (!pool.getQueue().offer(task)) {
+            dropped.increment();
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "move-precompute-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
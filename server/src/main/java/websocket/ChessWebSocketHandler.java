@@ -7,30 +7,41 @@ import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
+import dataaccess.DataAccessException;
+import handler.exceptions.UnauthorizedException;
 import io.javalin.websocket.WsConfig;
 import io.javalin.websocket.WsContext;
 import model.GameData;
 import service.GameService;
+import service.LegalMoveCache;
 import websocket.commands.UserGameCommand;
 import websocket.commands.UserMoveCommand;
 import websocket.messages.*;
 
 import java.lang.reflect.Type;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ChessWebSocketHandler {
 
     private final GameService gameService;
+    private final LegalMoveCache moveCache;
     private final Gson gson = new Gson();
     private final ConnectionManager connections = new ConnectionManager();
 
-    // Store auth tokens for sessions (null if observer)
-    private final Map<WsContext, String> ctxAuthTokens = new HashMap<>();
+    // Who each session is, resolved at CONNECT; dropped when its token is revoked
+    private final Map<WsContext, SessionPrincipal> principals = new ConcurrentHashMap<>();
 
-    public ChessWebSocketHandler(GameService gameService) {
+    // Sessions that asked at CONNECT for legal moves on every LOAD_GAME
+    private final Set<WsContext> legalMoveSessions = ConcurrentHashMap.newKeySet();
+
+    public ChessWebSocketHandler(GameService gameService, LegalMoveCache moveCache) {
         this.gameService = gameService;
+        this.moveCache = moveCache;
     }
 
     // --------------------------------------------------------
@@ -45,7 +56,8 @@ public class ChessWebSocketHandler {
 
         ws.onClose(ctx -> {
             connections.remove(ctx);
-            ctxAuthTokens.remove(ctx);
+            principals.remove(ctx);
+            legalMoveSessions.remove(ctx);
             System.out.println("WS Close: " + ctx.sessionId());
         });
 
@@ -106,35 +118,39 @@ public class ChessWebSocketHandler {
     // --------------------------------------------------------
     private void handleHighlight(HighlightRequest req, WsContext ctx) {
         try {
-            // Use stored auth token for this session
-
             System.out.println("Highlight request received: gameID=" + req.getGameID() + ", positions=" + req.getPositions());
 
-            String authToken = ctxAuthTokens.get(ctx); // null for observers
-            GameData game = gameService.getGame(authToken, req.getGameID());
-            ChessGame chess = game.chessGame();
-
-            if (req.getPositions() == null || req.getPositions().isEmpty()) {
-                sendError(ctx, "No position provided");
+            // Highlights carry no token, so only the session's principal can vouch for them: it
+            // must still be valid and bound to this game. Otherwise fail as a command whose token
+            // does not cover it would.
+            SessionPrincipal principal = principals.get(ctx);
+            if (principal == null || req.getGameID() == null || principal.gameID() != req.getGameID()) {
+                sendError(ctx, "unauthorized");
                 return;
             }
+            GameData game = gameService.getGame(req.getGameID());
+            ChessGame chess = game.chessGame();
 
-            ChessPosition pos = req.getPositions().get(0);
+            // No squares means every piece of the side to move
+            List<ChessPosition> squares = req.getPositions() == null || req.getPositions().isEmpty()
+                    ? chess.getBoard().getTeamPositions(chess.getTeamTurn())
+                    : req.getPositions();
 
-            if (pos.getRow() < 1 || pos.getRow() > 8 || pos.getColumn() < 1 || pos.getColumn() > 8) {
-                sendError(ctx, "Position out of bounds");
-                return;
+            for (ChessPosition pos : squares) {
+                if (pos == null || !isValidPosition(pos)) {
+                    sendError(ctx, "Position out of bounds");
+                    return;
+                }
             }
 
-            // Compute legal moves for the piece at this position
-            var moves = chess.validMoves(pos);
-
-            List<ChessPosition> highlights = moves == null ? List.of() :
-                    moves.stream().map(ChessMove::getEndPosition).toList();
+            // Legal moves for every square from at most one generation pass per side,
+            // shared with every session viewing this position
+            Map<ChessPosition, List<ChessPosition>> highlights = new LinkedHashMap<>();
+            moveCache.validMoves(chess, squares).forEach((pos, moves) ->
+                    highlights.put(pos, moves.stream().map(ChessMove::getEndPosition).toList()));
 
             // Send back highlight response
-            HighlightRequest response = new HighlightRequest(req.getGameID(), highlights);
-            connections.send(ctx, gson.toJson(response));
+            connections.send(ctx, gson.toJson(new HighlightResponse(req.getGameID(), highlights)));
 
         } catch (Exception e) {
             sendError(ctx, e.getMessage());
@@ -146,18 +162,10 @@ public class ChessWebSocketHandler {
     // --------------------------------------------------------
     private void handleConnect(UserGameCommand cmd, WsContext ctx) {
         try {
-            GameData game = gameService.getGame(cmd.getAuthToken(), cmd.getGameID());
-
-            // Store auth token for this session
-            ctxAuthTokens.put(ctx, cmd.getAuthToken());
-
-            connections.add(cmd.getGameID(), ctx);
-
-            // Send initial game state to this client
-            connections.send(ctx, gson.toJson(new LoadGameMessage(game)));
-
-            // Notify others
+            // The only token lookup this session needs unless the token is revoked
             String username = gameService.getUsernameForAuth(cmd.getAuthToken());
+            GameData game = gameService.getGame(cmd.getGameID());
+
             String role;
             if (username.equals(game.whiteUsername())) {
                 role = "WHITE";
@@ -166,7 +174,26 @@ public class ChessWebSocketHandler {
             } else {
                 role = "observer";
             }
+            principals.put(ctx, new SessionPrincipal(cmd.getAuthToken(), username, cmd.getGameID(), role));
+            if (cmd.includeLegalMoves()) {
+                legalMoveSessions.add(ctx);
+            } else {
+                legalMoveSessions.remove(ctx);
+            }
+
+            connections.add(cmd.getGameID(), ctx);
+
+            // Send initial game state to this client, or only the moves it missed if it is
+            // reconnecting to a game still in progress with a ply that is part of the game
+            String legalMoves = cmd.includeLegalMoves() ? encodeLegalMoves(game.chessGame()) : null;
+            List<ChessMove> missed = cmd.getKnownPly() == null || game.isGameOver() ? null
+                    : gameService.getMovesSince(game, cmd.getKnownPly());
+            LoadGameMessage load = missed != null
+                    ? LoadGameMessage.catchUp(cmd.getKnownPly(), missed, legalMoves)
+                    : new LoadGameMessage(game, legalMoves);
+            connections.send(ctx, gson.toJson(load));
 
+            // Notify others
             NotificationMessage notify = new NotificationMessage(username + " connected as " + role);
             connections.broadcastExcluding(cmd.getGameID(), ctx, gson.toJson(notify));
 
@@ -193,18 +220,19 @@ public class ChessWebSocketHandler {
                 return;
             }
 
-            GameData updated = gameService.makeMove(cmd.getGameID(), cmd.getAuthToken(), move);
+            String username = identify(cmd, principals.get(ctx));
+            GameData updated = gameService.makeMoveAs(username, cmd.getGameID(), move);
 
-            connections.broadcast(cmd.getGameID(), gson.toJson(new LoadGameMessage(updated)));
+            broadcastLoadGame(cmd.getGameID(), updated);
 
-            String username = gameService.getUsernameForAuth(cmd.getAuthToken());
             connections.broadcastExcluding(cmd.getGameID(), ctx,
                     gson.toJson(new NotificationMessage(username + " played: " + move)));
 
+            // makeMove already classified the new position; this reads the cached status
             ChessGame chess = updated.chessGame();
             ChessGame.TeamColor nextTurn = chess.getTeamTurn();
 
-            if (chess.isInCheck(nextTurn) && !updated.isGameOver()) {
+            if (chess.getStatus().isCheck() && !updated.isGameOver()) {
                 String playerInCheck = nextTurn == ChessGame.TeamColor.WHITE ?
                         updated.whiteUsername() != null ? updated.whiteUsername() : "WHITE player (not joined)" :
                         updated.blackUsername() != null ? updated.blackUsername() : "BLACK player (not joined)";
@@ -234,7 +262,7 @@ public class ChessWebSocketHandler {
     // --------------------------------------------------------
     private void handleResign(UserGameCommand cmd, WsContext ctx) {
         try {
-            String loser = gameService.resignGame(cmd.getAuthToken(), cmd.getGameID());
+            String loser = gameService.resignGameAs(identify(cmd, principals.get(ctx)), cmd.getGameID());
             connections.broadcast(cmd.getGameID(), gson.toJson(new NotificationMessage(loser + " resigned")));
         } catch (Exception e) {
             sendError(ctx, e.getMessage());
@@ -246,10 +274,11 @@ public class ChessWebSocketHandler {
     // --------------------------------------------------------
     private void handleLeave(UserGameCommand cmd, WsContext ctx) {
         try {
+            SessionPrincipal principal = principals.remove(ctx);
             connections.remove(ctx);
-            ctxAuthTokens.remove(ctx);
+            legalMoveSessions.remove(ctx);
 
-            String username = gameService.leaveGame(cmd.getAuthToken(), cmd.getGameID());
+            String username = gameService.leaveGameAs(identify(cmd, principal), cmd.getGameID());
 
             connections.broadcastExcluding(cmd.getGameID(), ctx,
                     gson.toJson(new NotificationMessage(username + " left the game")));
@@ -259,6 +288,31 @@ public class ChessWebSocketHandler {
         }
     }
 
+    // --------------------------------------------------------
+    // IDENTITY
+    // --------------------------------------------------------
+
+    /**
+     * Resolves who sent a command: the session's principal if the command carries the token
+     * and game it connected with, otherwise a fresh lookup of the command's token, which
+     * rejects bad and revoked tokens.
+     */
+    private String identify(UserGameCommand cmd, SessionPrincipal principal)
+            throws UnauthorizedException, DataAccessException {
+        if (principal != null && principal.covers(cmd)) {
+            return principal.username();
+        }
+        return gameService.getUsernameForAuth(cmd.getAuthToken());
+    }
+
+    /**
+     * Forgets the identity of sessions that connected with a token that has been deleted
+     * (every session if {@code authToken} is null), so their next command looks it up again.
+     */
+    public void revoke(String authToken) {
+        principals.values().removeIf(principal -> authToken == null || principal.authToken().equals(authToken));
+    }
+
     // --------------------------------------------------------
     // HELPERS
     // --------------------------------------------------------
@@ -268,6 +322,39 @@ public class ChessWebSocketHandler {
         return row >= 1 && row <= 8 && col >= 1 && col <= 8;
     }
 
+    /**
+     * Sends LOAD_GAME to everyone in the game. Each variant of the message is built at
+     * most once, and the legal moves (read through the shared cache) only if a session
+     * in the game asked for them.
+     */
+    private void broadcastLoadGame(int gameID, GameData game) {
+        String plain = null;
+        String withMoves = null;
+        for (WsContext session : connections.getSessions(gameID)) {
+            if (legalMoveSessions.contains(session)) {
+                if (withMoves == null) {
+                    withMoves = gson.toJson(new LoadGameMessage(game, encodeLegalMoves(game.chessGame())));
+                }
+                connections.send(session, withMoves);
+            } else {
+                if (plain == null) {
+                    plain = gson.toJson(new LoadGameMessage(game));
+                }
+                connections.send(session, plain);
+            }
+        }
+    }
+
+    private String encodeLegalMoves(ChessGame chess) {
+        if (chess.isGameOver()) {
+            return "";
+        }
+        List<ChessMove> moves = new ArrayList<>();
+        List<ChessPosition> pieces = chess.getBoard().getTeamPositions(chess.getTeamTurn());
+        moveCache.validMoves(chess, pieces).values().forEach(moves::addAll);
+        return LoadGameMessage.encodeLegalMoves(moves);
+    }
+
     private void sendError(WsContext ctx, String msg) {
         connections.send(ctx, gson.toJson(new ErrorMessage(msg)));
     }
@@ -0,0 +1,20 @@
+package websocket;
+
+import websocket.commands.UserGameCommand;
+
+/**
+ * Who a WebSocket session is, resolved from its auth token once at CONNECT.
+ *
+ * @param role WHITE, BLACK or observer, as announced when the session connected
+ */
+record SessionPrincipal(String authToken, String username, int gameID, String role) {
+
+    /**
+     * @return whether the command comes with the token and game this session connected with,
+     * so it can be trusted without looking the token up again
+     */
+    boolean covers(UserGameCommand cmd) {
+        return authToken.equals(cmd.getAuthToken())
+                && cmd.getGameID() != null && gameID == cmd.getGameID();
+    }
+}
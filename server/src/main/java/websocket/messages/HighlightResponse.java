@@ -0,0 +1,60 @@
+package websocket.messages;
+
+import chess.ChessPosition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answer to a {@link HighlightRequest}: the move targets of every requested square.
+ * <p>
+ * {@code positions} holds all targets together, which is what single-square clients
+ * read; {@code moves} keeps them per square for clients that ask for several at once.
+ */
+public class HighlightResponse {
+
+    private final Integer gameID;
+    private final List<ChessPosition> positions;
+    private final List<SquareMoves> moves;
+
+    public HighlightResponse(Integer gameID, Map<ChessPosition, List<ChessPosition>> targetsBySquare) {
+        this.gameID = gameID;
+        this.positions = new ArrayList<>();
+        this.moves = new ArrayList<>(targetsBySquare.size());
+        for (Map.Entry<ChessPosition, List<ChessPosition>> entry : targetsBySquare.entrySet()) {
+            positions.addAll(entry.getValue());
+            moves.add(new SquareMoves(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    public Integer getGameID() {
+        return gameID;
+    }
+
+    public List<ChessPosition> getPositions() {
+        return positions;
+    }
+
+    public List<SquareMoves> getMoves() {
+        return moves;
+    }
+
+    public static class SquareMoves {
+        private final ChessPosition position;
+        private final List<ChessPosition> targets;
+
+        public SquareMoves(ChessPosition position, List<ChessPosition> targets) {
+            this.position = position;
+            this.targets = targets;
+        }
+
+        public ChessPosition getPosition() {
+            return position;
+        }
+
+        public List<ChessPosition> getTargets() {
+            return targets;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package dataaccess;
+
+import model.AuthData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingAuthDAOTest {
+
+    /** In-memory store that counts how often it is asked for a token. */
+    private static class CountingAuth extends InMemoryAuth {
+        int lookups;
+
+        @Override
+        public AuthData getAuth(String token) {
+            lookups++;
+            return super.getAuth(token);
+        }
+    }
+
+    private CountingAuth store;
+    private long now;
+    private CachingAuthDAO cache;
+
+    @BeforeEach
+    void setup() {
+        store = new CountingAuth();
+        cache = new CachingAuthDAO(store, 3, 1_000, 100, () -> now);
+    }
+
+    private void advanceMillis(long millis) {
+        now += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    @Test
+    void testRepeatedLookupsHitCache() throws DataAccessException {
+        store.createAuth(new AuthData("token", "tommy"));
+        for (int i = 0; i < 3; i++) {
+            assertEquals("tommy", cache.getAuth("token").username());
+        }
+        assertEquals(1, store.lookups);
+        assertEquals(2, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    void testEntriesExpire() throws DataAccessException {
+        store.createAuth(new AuthData("token", "tommy"));
+        cache.getAuth("token");
+        advanceMillis(999);
+        cache.getAuth("token");
+        assertEquals(1, store.lookups);
+
+        advanceMillis(1);
+        cache.getAuth("token");
+        assertEquals(2, store.lookups);
+    }
+
+    @Test
+    void testUnknownTokensAreCachedBriefly() throws DataAccessException {
+        assertNull(cache.getAuth("bad"));
+        assertNull(cache.getAuth("bad"));
+        assertEquals(1, store.lookups);
+
+        advanceMillis(100);
+        assertNull(cache.getAuth("bad"));
+        assertEquals(2, store.lookups);
+    }
+
+    @Test
+    void testDeleteInvalidatesImmediately() throws DataAccessException {
+        cache.createAuth(new AuthData("token", "tommy"));
+        assertNotNull(cache.getAuth("token"));
+        assertEquals(0, store.lookups); // created tokens are cached without a lookup
+
+        cache.deleteAuth("token");
+        assertNull(cache.getAuth("token"));
+        assertEquals(1, store.lookups);
+    }
+
+    @Test
+    void testCreateReplacesNegativeEntry() throws DataAccessException {
+        assertNull(cache.getAuth("token"));
+        cache.createAuth(new AuthData("token", "tommy"));
+        assertEquals("tommy", cache.getAuth("token").username());
+    }
+
+    @Test
+    void testClearInvalidatesEverything() throws DataAccessException {
+        cache.createAuth(new AuthData("a", "tommy"));
+        cache.createAuth(new AuthData("b", "sally"));
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.getAuth("a"));
+        assertNull(cache.getAuth("b"));
+    }
+
+    @Test
+    void testLeastRecentlyUsedTokenIsDropped() throws DataAccessException {
+        cache.createAuth(new AuthData("a", "tommy"));
+        cache.createAuth(new AuthData("b", "sally"));
+        cache.createAuth(new AuthData("c", "jimmy"));
+        cache.getAuth("a"); // now b is the least recently used
+        cache.createAuth(new AuthData("d", "susie"));
+
+        cache.getAuth("a");
+        cache.getAuth("c");
+        cache.getAuth("d");
+        assertEquals(0, store.lookups);
+        cache.getAuth("b");
+        assertEquals(1, store.lookups);
+    }
+
+    @Test
+    void testSizeStaysWithinCapacity() throws DataAccessException {
+        for (int i = 0; i < 10; i++) {
+            cache.createAuth(new AuthData("token" + i, "user" + i));
+            assertTrue(cache.size() <= 3);
+        }
+        // evicted tokens are still found in the store
+        for (int i = 0; i < 10; i++) {
+            assertEquals("user" + i, cache.getAuth("token" + i).username());
+        }
+    }
+
+    @Test
+    void testRevocationListenersHearDeletesAndClears() throws DataAccessException {
+        List<String> revoked = new ArrayList<>();
+        cache.addRevocationListener(revoked::add);
+        cache.createAuth(new AuthData("token", "tommy"));
+
+        cache.deleteAuth("token");
+        cache.clear();
+        assertEquals(Arrays.asList("token", null), revoked);
+    }
+}
@@ -0,0 +1,279 @@
+package dataaccess;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTest {
+
+    /** Stand-in for a physical connection that records what was done to it. */
+    private static class FakeConnection {
+        boolean valid = true;
+        boolean closed;
+        boolean autoCommit = true;
+        int rollbacks;
+        final List<FakeStatement> prepared = new ArrayList<>();
+
+        Connection connection() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "isValid" -> valid;
+                        case "isClosed" -> closed;
+                        case "close" -> {
+                            closed = true;
+                            yield null;
+                        }
+                        case "getAutoCommit" -> autoCommit;
+                        case "setAutoCommit" -> {
+                            autoCommit = (Boolean) args[0];
+                            yield null;
+                        }
+                        case "rollback" -> {
+                            rollbacks++;
+                            yield null;
+                        }
+                        case "prepareStatement" -> {
+                            FakeStatement statement = new FakeStatement((String) args[0]);
+                            prepared.add(statement);
+                            yield statement.statement();
+                        }
+                        default -> null;
+                    });
+        }
+    }
+
+    /** Stand-in for a physical prepared statement. */
+    private static class FakeStatement {
+        final String sql;
+        boolean closed;
+        int clears;
+
+        FakeStatement(String sql) {
+            this.sql = sql;
+        }
+
+        PreparedStatement statement() {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "isClosed" -> closed;
+                        case "close" -> {
+                            closed = true;
+                            yield null;
+                        }
+                        case "clearParameters" -> {
+                            clears++;
+                            yield null;
+                        }
+                        case "executeUpdate" -> 1;
+                        default -> null;
+                    });
+        }
+    }
+
+    private final List<FakeConnection> opened = new ArrayList<>();
+    private ConnectionPool pool;
+    private int statementCacheSize;
+
+    private ConnectionPool newPool(int min, int max, long acquireTimeoutMillis) {
+        pool = ConnectionPool.create(() -> {
+            FakeConnection fake = new FakeConnection();
+            opened.add(fake);
+            return fake.connection();
+        }, new ConnectionPool.Settings(min, max, 60_000, acquireTimeoutMillis, 60_000, statementCacheSize));
+        return pool;
+    }
+
+    @AfterEach
+    void closePool() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void testReusesReturnedConnection() throws SQLException {
+        newPool(0, 2, 100);
+        try (Connection conn = pool.getConnection()) {
+            assertEquals(1, pool.activeCount());
+        }
+        try (Connection conn = pool.getConnection()) {
+            assertFalse(conn.isClosed());
+        }
+        assertEquals(1, opened.size());
+        assertFalse(opened.get(0).closed);
+        assertEquals(1, pool.idleCount());
+        assertEquals(0, pool.activeCount());
+    }
+
+    @Test
+    void testTimesOutWhenExhausted() throws SQLException {
+        newPool(0, 1, 50);
+        try (Connection held = pool.getConnection()) {
+            assertThrows(SQLTimeoutException.class, () -> pool.getConnection());
+        }
+        pool.getConnection().close();
+    }
+
+    @Test
+    void testDiscardsInvalidConnectionOnBorrow() throws Exception {
+        newPool(0, 2, 100);
+        pool.getConnection().close();
+        opened.get(0).valid = false;
+        Thread.sleep(600); // past the window in which returned connections skip validation
+
+        try (Connection conn = pool.getConnection()) {
+            assertEquals(2, opened.size());
+            assertTrue(opened.get(0).closed);
+        }
+    }
+
+    @Test
+    void testReturnedConnectionCannotBeUsed() throws SQLException {
+        newPool(0, 1, 100);
+        Connection conn = pool.getConnection();
+        conn.close();
+        conn.close(); // closing twice is harmless
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::createStatement);
+        assertEquals(1, pool.idleCount());
+    }
+
+    @Test
+    void testRollsBackOpenTransactionOnReturn() throws SQLException {
+        newPool(0, 1, 100);
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+        }
+        assertEquals(1, opened.get(0).rollbacks);
+        assertTrue(opened.get(0).autoCommit);
+    }
+
+    @Test
+    void testFillsToMinimum() {
+        newPool(3, 5, 100);
+        pool.fillToMinimum();
+        assertEquals(3, pool.idleCount());
+        assertEquals(3, opened.size());
+    }
+
+    @Test
+    void testReusesCachedStatementAcrossBorrows() throws SQLException {
+        statementCacheSize = 4;
+        newPool(0, 1, 100);
+        for (int i = 0; i < 3; i++) {
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement("SELECT 1")) {
+                assertSame(conn, stmt.getConnection());
+                stmt.executeUpdate();
+            }
+        }
+
+        FakeConnection fake = opened.get(0);
+        assertEquals(1, fake.prepared.size());
+        assertFalse(fake.prepared.get(0).closed);
+        assertEquals(3, fake.prepared.get(0).clears);
+        assertEquals(2, pool.statementCacheHits());
+        assertEquals(1, pool.statementCacheMisses());
+        assertEquals(2.0 / 3, pool.statementCacheHitRatio(), 1e-9);
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedStatement() throws SQLException {
+        statementCacheSize = 2;
+        newPool(0, 1, 100);
+        try (Connection conn = pool.getConnection()) {
+            conn.prepareStatement("A").close();
+            conn.prepareStatement("B").close();
+            conn.prepareStatement("A").close();
+            conn.prepareStatement("C").close(); // B is least recently used
+            conn.prepareStatement("A").close();
+        }
+
+        List<FakeStatement> prepared = opened.get(0).prepared;
+        assertEquals(List.of("A", "B", "C"), prepared.stream().map(statement -> statement.sql).toList());
+        assertFalse(prepared.get(0).closed);
+        assertTrue(prepared.get(1).closed);
+        assertFalse(prepared.get(2).closed);
+    }
+
+    @Test
+    void testNestedPrepareOfSameSqlGetsSeparateStatement() throws SQLException {
+        statementCacheSize = 4;
+        newPool(0, 1, 100);
+        try (Connection conn = pool.getConnection()) {
+            PreparedStatement outer = conn.prepareStatement("SELECT 1");
+            PreparedStatement inner = conn.prepareStatement("SELECT 1");
+            assertNotSame(outer, inner);
+            inner.close();
+            outer.close();
+            assertThrows(SQLException.class, outer::executeUpdate);
+        }
+
+        List<FakeStatement> prepared = opened.get(0).prepared;
+        assertEquals(2, prepared.size());
+        assertFalse(prepared.get(0).closed);
+        assertTrue(prepared.get(1).closed);
+    }
+
+    @Test
+    void testUnclosedOverflowStatementIsClosedOnReturn() throws SQLException {
+        statementCacheSize = 4;
+        newPool(0, 1, 100);
+        Connection conn = pool.getConnection();
+        PreparedStatement first = conn.prepareStatement("SELECT 1");
+        PreparedStatement second = conn.prepareStatement("SELECT 1");
+        conn.close(); // neither statement was closed
+
+        List<FakeStatement> prepared = opened.get(0).prepared;
+        assertEquals(2, prepared.size());
+        assertFalse(prepared.get(0).closed, "the cached statement is kept for the next borrower");
+        assertTrue(prepared.get(1).closed, "the overflow statement must not outlive the borrow");
+        assertTrue(first.isClosed());
+        assertTrue(second.isClosed());
+
+        try (Connection again = pool.getConnection()) {
+            again.prepareStatement("SELECT 1").close();
+        }
+        assertEquals(2, prepared.size());
+    }
+
+    @Test
+    void testPhysicalConnectionCannotBeUnwrapped() throws SQLException {
+        statementCacheSize = 4;
+        newPool(0, 1, 100);
+        try (Connection conn = pool.getConnection()) {
+            assertSame(conn, conn.unwrap(Connection.class));
+            assertTrue(conn.isWrapperFor(Connection.class));
+            assertFalse(conn.isWrapperFor(Runnable.class));
+            assertThrows(SQLException.class, () -> conn.unwrap(Runnable.class));
+
+            PreparedStatement statement = conn.prepareStatement("SELECT 1");
+            assertSame(statement, statement.unwrap(PreparedStatement.class));
+            assertSame(conn, statement.unwrap(PreparedStatement.class).getConnection());
+            assertThrows(SQLException.class, () -> statement.unwrap(Runnable.class));
+            statement.close();
+        }
+        assertFalse(opened.get(0).closed);
+    }
+
+    @Test
+    void testStatementsPassThroughWhenCacheIsOff() throws SQLException {
+        newPool(0, 1, 100);
+        try (Connection conn = pool.getConnection()) {
+            conn.prepareStatement("SELECT 1").close();
+            conn.prepareStatement("SELECT 1").close();
+        }
+        assertEquals(2, opened.get(0).prepared.size());
+        assertTrue(opened.get(0).prepared.get(0).closed);
+        assertEquals(0, pool.statementCacheHitRatio());
+    }
+}
@@ -0,0 +1,275 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import model.GameData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteBehindGameDAOTest {
+
+    /** Stand-in for the durable store that records each write and batch. */
+    private static class RecordingStore implements GameDAO {
+        final Map<Integer, GameData> games = new HashMap<>();
+        final List<Integer> batchSizes = new ArrayList<>();
+        int singleWrites;
+        int reads;
+        boolean failNext;
+        private int nextId = 1;
+
+        @Override
+        public synchronized int createGame(GameData game) {
+            int id = nextId++;
+            games.put(id, new GameData(id, game.gameName(), game.whiteUsername(), game.blackUsername(), game.game()));
+            return id;
+        }
+
+        @Override
+        public synchronized GameData getGame(int gameId) {
+            reads++;
+            return games.get(gameId);
+        }
+
+        @Override
+        public synchronized void updateGame(GameData game) {
+            singleWrites++;
+            games.put(game.gameID(), game);
+        }
+
+        @Override
+        public synchronized void updateGames(Collection<GameData> batch) throws DataAccessException {
+            if (failNext) {
+                failNext = false;
+                throw new DataAccessException("store unavailable");
+            }
+            batchSizes.add(batch.size());
+            batch.forEach(game -> games.put(game.gameID(), game));
+        }
+
+        @Override
+        public synchronized List<GameData> getAllGames() {
+            return new ArrayList<>(games.values());
+        }
+
+        @Override
+        public synchronized void clear() {
+            games.clear();
+        }
+
+        synchronized ChessGame.TeamColor storedTurn(int gameId) {
+            return games.get(gameId).chessGame().getTeamTurn();
+        }
+    }
+
+    // Long enough that only explicit flushes and close() write anything during a test
+    private static final long MANUAL = 60_000;
+
+    private final RecordingStore store = new RecordingStore();
+    private WriteBehindGameDAO dao;
+
+    private WriteBehindGameDAO open(WriteBehindGameDAO.Durability durability, long flushIntervalMillis) {
+        return WriteBehindGameDAO.create(store, durability, flushIntervalMillis, 16);
+    }
+
+    @AfterEach
+    void close() throws DataAccessException {
+        if (dao != null) {
+            dao.close();
+        }
+    }
+
+    private static GameData newGame(String name) {
+        return new GameData(0, name, null, null, new ChessGame());
+    }
+
+    private static GameData withMove(GameData game) throws InvalidMoveException {
+        ChessGame chess = game.chessGame();
+        int pawnRow = chess.getTeamTurn() == ChessGame.TeamColor.WHITE ? 2 : 7;
+        int dir = pawnRow == 2 ? 1 : -1;
+        int col = chess.getHistory().size() / 2 + 1;
+        chess.makeMove(new ChessMove(new ChessPosition(pawnRow, col), new ChessPosition(pawnRow + dir, col), null));
+        return game;
+    }
+
+    @Test
+    void testReadsComeFromMemoryAsCopies() throws Exception {
+        dao = open(WriteBehindGameDAO.Durability.ASYNC, MANUAL);
+        int id = dao.createGame(newGame("game"));
+
+        GameData first = dao.getGame(id);
+        withMove(first); // not saved, so nobody else sees it
+        assertEquals(ChessGame.TeamColor.WHITE, dao.getGame(id).chessGame().getTeamTurn());
+        assertEquals(0, store.reads);
+    }
+
+    @Test
+    void testAsyncCoalescesChangesIntoOneBatch() throws Exception {
+        dao = open(WriteBehindGameDAO.Durability.ASYNC, MANUAL);
+        int a = dao.createGame(newGame("a"));
+        int b = dao.createGame(newGame("b"));
+
+        for (int i = 0; i < 3; i++) {
+            dao.updateGame(withMove(dao.getGame(a)));
+        }
+        dao.updateGame(withMove(dao.getGame(b)));
+        assertEquals(2, dao.pendingCount());
+        assertEquals(ChessGame.TeamColor.WHITE, store.storedTurn(a)); // nothing written yet
+        assertEquals(ChessGame.TeamColor.BLACK, dao.getGame(a).chessGame().getTeamTurn());
+
+        dao.flush();
+        assertEquals(List.of(2), store.batchSizes);
+        assertEquals(ChessGame.TeamColor.BLACK, store.storedTurn(a));
+        assertEquals(3, store.getGame(a).chessGame().getHistory().size());
+        assertEquals(0, dao.pendingCount());
+    }
+
+    @Test
+    void testSyncWritesThrough() throws Exception {
+        dao = open(WriteBehindGameDAO.Durability.SYNC, 0);
+        int id = dao.createGame(newGame("game"));
+        dao.updateGame(withMove(dao.getGame(id)));
+
+        assertEquals(1, store.singleWrites);
+        assertEquals(ChessGame.TeamColor.BLACK, store.storedTurn(id));
+    }
+
+    @Test
+    void testGroupCommitWaitsForFlush() throws Exception {
+        dao = open(WriteBehindGameDAO.Durability.GROUP_COMMIT, 0);
+        int id = dao.createGame(newGame("game"));
+        dao.updateGame(withMove(dao.getGame(id)));
+
+        assertEquals(ChessGame.TeamColor.BLACK, store.storedTurn(id));
+        assertEquals(0, store.singleWrites);
+        assertFalse(store.batchSizes.isEmpty());
+    }
+
+    @Test
+    void testGroupCommitFailureIsNotShown() throws Exception {
+        dao = open(WriteBehindGameDAO.Durability.GROUP_COMMIT, 0);
+        int id = dao.createGame(newGame("game"));
+
+        store.failNext = true;
+        GameData moved = withMove(dao.getGame(id));
+        assertThrows(DataAccessException.class, () -> dao.updateGame(moved));
+        assertEquals(ChessGame.TeamColor.WHITE, dao.getGame(id).chessGame().getTeamTurn());
+        assertEquals(ChessGame.TeamColor.WHITE, store.storedTurn(id));
+        assertEquals(0, dao.pendingCount());
+
+        dao.updateGame(withMove(dao.getGame(id)));
+        assertEquals(ChessGame.TeamColor.BLACK, dao.getGame(id).chessGame().getTeamTurn());
+        assertEquals(ChessGame.TeamColor.BLACK, store.storedTurn(id));
+    }
+
+    @Test
+    void testFailedFlushIsRetried() throws Exception {
+        dao = open(WriteBehindGameDAO.Durability.ASYNC, MANUAL);
+        int id = dao.createGame(newGame("game"));
+        dao.updateGame(withMove(dao.getGame(id)));
+
+        store.failNext = true;
+        assertThrows(DataAccessException.class, () -> dao.flush());
+        assertEquals(1, dao.pendingCount());
+
+        dao.flush();
+        assertEquals(ChessGame.TeamColor.BLACK, store.storedTurn(id));
+    }
+
+    @Test
+    void testCloseWritesPendingChanges() throws Exception {
+        dao = open(WriteBehindGameDAO.Durability.ASYNC, MANUAL);
+        int id = dao.createGame(newGame("game"));
+        dao.updateGame(withMove(dao.getGame(id)));
+
+        dao.close();
+        assertEquals(ChessGame.TeamColor.BLACK, store.storedTurn(id));
+    }
+
+    @Test
+    void testCloseDoesNotWaitOutTheInterval() throws Exception {
+        dao = open(WriteBehindGameDAO.Durability.ASYNC, MANUAL);
+        int id = dao.createGame(newGame("game"));
+        dao.updateGame(withMove(dao.getGame(id)));
+
+        long start = System.nanoTime();
+        dao.close();
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5), "close() waited for the flush interval");
+        assertEquals(ChessGame.TeamColor.BLACK, store.storedTurn(id));
+    }
+
+    @Test
+    void testFlusherWritesAfterInterval() throws Exception {
+        dao = open(WriteBehindGameDAO.Durability.ASYNC, 10);
+        int id = dao.createGame(newGame("game"));
+        dao.updateGame(withMove(dao.getGame(id)));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (store.storedTurn(id) != ChessGame.TeamColor.BLACK && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(ChessGame.TeamColor.BLACK, store.storedTurn(id));
+        assertEquals(0, dao.pendingCount());
+    }
+
+    @Test
+    void testLeastRecentlyUsedGameIsDropped() throws Exception {
+        dao = WriteBehindGameDAO.create(store, WriteBehindGameDAO.Durability.ASYNC, MANUAL, 2);
+        int a = dao.createGame(newGame("a"));
+        int b = dao.createGame(newGame("b"));
+        dao.getGame(a); // now b is the least recently used
+        int c = dao.createGame(newGame("c"));
+
+        dao.getGame(a);
+        dao.getGame(c);
+        assertEquals(0, store.reads);
+        assertNotNull(dao.getGame(b));
+        assertEquals(1, store.reads);
+    }
+
+    @Test
+    void testUnsavedGamesAreKeptPastCapacity() throws Exception {
+        dao = WriteBehindGameDAO.create(store, WriteBehindGameDAO.Durability.ASYNC, MANUAL, 1);
+        int a = dao.createGame(newGame("a"));
+        dao.updateGame(withMove(dao.getGame(a)));
+        dao.createGame(newGame("b"));
+
+        assertEquals(ChessGame.TeamColor.BLACK, dao.getGame(a).chessGame().getTeamTurn());
+        assertEquals(0, store.reads);
+    }
+
+    @Test
+    void testFinishedGameIsDroppedOnceSaved() throws Exception {
+        dao = open(WriteBehindGameDAO.Durability.ASYNC, MANUAL);
+        int id = dao.createGame(newGame("game"));
+        GameData finished = dao.getGame(id);
+        finished.chessGame().setWinner(ChessGame.TeamColor.BLACK);
+        dao.updateGame(finished);
+        assertTrue(dao.getGame(id).isGameOver());
+        assertEquals(0, store.reads);
+
+        dao.flush();
+        assertTrue(dao.getGame(id).isGameOver());
+        assertEquals(1, store.reads);
+    }
+
+    @Test
+    void testListShowsUnsavedChanges() throws Exception {
+        dao = open(WriteBehindGameDAO.Durability.ASYNC, MANUAL);
+        int id = dao.createGame(newGame("game"));
+        dao.updateGame(dao.getGame(id).withWhite("tommy"));
+
+        assertEquals("tommy", dao.getAllGames().get(0).whiteUsername());
+        assertNull(store.getGame(id).whiteUsername());
+    }
+}
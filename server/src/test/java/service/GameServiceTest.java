@@ -1,5 +1,9 @@
 package service;
 
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
 import dataaccess.*;
 import handler.exceptions.BadRequestException;
 import handler.exceptions.ForbiddenException;
@@ -9,8 +13,11 @@ import model.GameData;
 import model.UserData;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import websocket.messages.LoadGameMessage;
 
 import javax.xml.crypto.Data;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -85,4 +92,50 @@ public class GameServiceTest {
         assertThrows(UnauthorizedException.class, () ->
                 gameService.joinGame("fakeToken", 1, "WHITE"));
     }
+
+    @Test
+    void testCatchUpFromStalePlyGetsExactlyTheMissingMoves() throws InvalidMoveException {
+        ChessGame chess = new ChessGame();
+        GameData game = new GameData(1, "catch up", "white", "black", chess);
+        List<ChessMove> played = new ArrayList<>();
+        int[][] moves = {{2, 5, 4, 5}, {7, 5, 5, 5}, {1, 7, 3, 6}, {8, 2, 6, 3},
+                {1, 6, 4, 3}, {8, 7, 6, 6}, {2, 4, 3, 4}};
+
+        for (int i = 0; i < 4; i++) {
+            played.add(play(chess, moves[i]));
+        }
+        // a client that saw ply 4 while the timeline was built
+        assertEquals(List.of(), gameService.getMovesSince(game, 4));
+
+        for (int i = 4; i < moves.length; i++) {
+            played.add(play(chess, moves[i]));
+        }
+        List<ChessMove> missed = gameService.getMovesSince(game, 2);
+        assertEquals(played.subList(2, played.size()), missed);
+        assertEquals(played.subList(2, played.size()),
+                LoadGameMessage.catchUp(2, missed, null).getMoves());
+        assertNull(gameService.getMovesSince(game, played.size() + 1));
+    }
+
+    @Test
+    void testTimelinesAreDroppedForFinishedAndClearedGames() throws InvalidMoveException, DataAccessException {
+        ChessGame chess = new ChessGame();
+        GameData game = new GameData(1, "timeline", "white", "black", chess);
+        play(chess, new int[]{2, 5, 4, 5});
+        gameService.getMovesSince(game, 0);
+        assertEquals(1, gameService.timelineCount());
+
+        new ClearService(authDAO, gameDAO, userDAO, gameService).clear();
+        assertEquals(0, gameService.timelineCount());
+
+        chess.setWinner(ChessGame.TeamColor.WHITE);
+        assertEquals(1, gameService.getMovesSince(game, 0).size());
+        assertEquals(0, gameService.timelineCount());
+    }
+
+    private static ChessMove play(ChessGame chess, int[] move) throws InvalidMoveException {
+        ChessMove chessMove = new ChessMove(new ChessPosition(move[0], move[1]), new ChessPosition(move[2], move[3]), null);
+        chess.makeMove(chessMove);
+        return chessMove;
+    }
 }
@@ -0,0 +1,135 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LegalMoveCacheTest {
+
+    private LegalMoveCache cache;
+
+    @BeforeEach
+    void setup() {
+        cache = new LegalMoveCache(1000);
+    }
+
+    @Test
+    void testMissThenHit() {
+        ChessGame game = new ChessGame();
+        ChessPosition knight = new ChessPosition(1, 2);
+
+        List<ChessMove> first = cache.validMoves(game, knight);
+        List<ChessMove> second = cache.validMoves(game, knight);
+
+        assertEquals(new HashSet<>(game.validMoves(knight)), new HashSet<>(first));
+        assertSame(first, second);
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.hits());
+    }
+
+    @Test
+    void testSharedAcrossGames() {
+        ChessPosition pawn = new ChessPosition(2, 5);
+        cache.validMoves(new ChessGame(), pawn);
+        cache.validMoves(new ChessGame(), pawn);
+
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.hits());
+    }
+
+    @Test
+    void testNewPositionMisses() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        ChessPosition bishop = new ChessPosition(1, 6);
+        assertTrue(cache.validMoves(game, bishop).isEmpty());
+
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+
+        assertEquals(5, cache.validMoves(game, bishop).size());
+        assertEquals(2, cache.misses());
+        assertEquals(0, cache.hits());
+    }
+
+    @Test
+    void testPrecomputeFillsSideToMove() {
+        ChessGame game = new ChessGame();
+        cache.precompute(game);
+        assertEquals(16, cache.size());
+
+        for (int col = 1; col <= 8; col++) {
+            ChessPosition pawn = new ChessPosition(2, col);
+            assertEquals(new HashSet<>(game.validMoves(pawn)), new HashSet<>(cache.validMoves(game, pawn)));
+        }
+        assertTrue(cache.validMoves(game, new ChessPosition(1, 1)).isEmpty());
+        assertEquals(9, cache.hits());
+        assertEquals(0, cache.misses());
+    }
+
+    @Test
+    void testBatchUsesOnePassPerSide() {
+        ChessGame game = new ChessGame();
+        List<ChessPosition> squares = List.of(new ChessPosition(1, 2), new ChessPosition(2, 4),
+                new ChessPosition(8, 7), new ChessPosition(4, 4));
+
+        Map<ChessPosition, List<ChessMove>> moves = cache.validMoves(game, squares);
+
+        assertEquals(squares, List.copyOf(moves.keySet()));
+        for (ChessPosition square : squares) {
+            Collection<ChessMove> expected = game.validMoves(square);
+            assertEquals(expected == null ? Set.of() : new HashSet<>(expected), new HashSet<>(moves.get(square)));
+        }
+        // the knight's pass cached the d2 pawn, and both sides' pieces plus the empty square are now cached
+        assertEquals(3, cache.misses());
+        assertEquals(1, cache.hits());
+        assertEquals(33, cache.size());
+
+        cache.validMoves(game, List.of(new ChessPosition(1, 7), new ChessPosition(7, 1)));
+        assertEquals(3, cache.hits());
+    }
+
+    @Test
+    void testEmptySquare() {
+        assertEquals(List.of(), cache.validMoves(new ChessGame(), new ChessPosition(4, 4)));
+    }
+
+    @Test
+    void testEvictsBeyondCapacity() {
+        LegalMoveCache small = new LegalMoveCache(16);
+        ChessGame game = new ChessGame();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                small.validMoves(game, new ChessPosition(row, col));
+            }
+        }
+        assertTrue(small.size() <= 16);
+        assertEquals(64, small.misses());
+    }
+
+    @Test
+    void testSmallCapacityIsHonoured() {
+        for (int capacity : new int[]{1, 4, 20}) {
+            LegalMoveCache small = new LegalMoveCache(capacity);
+            ChessGame game = new ChessGame();
+            for (int row = 1; row <= 8; row++) {
+                for (int col = 1; col <= 8; col++) {
+                    small.validMoves(game, new ChessPosition(row, col));
+                    assertTrue(small.size() <= capacity, "capacity " + capacity);
+                }
+            }
+            assertTrue(small.size() > 0);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new LegalMoveCache(0));
+    }
+}
@@ -0,0 +1,205 @@
+package websocket;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import dataaccess.CachingAuthDAO;
+import dataaccess.InMemoryAuth;
+import dataaccess.InMemoryGame;
+import dataaccess.InMemoryUser;
+import io.javalin.Javalin;
+import model.AuthData;
+import model.GameData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import service.GameService;
+import service.LegalMoveCache;
+import websocket.commands.UserGameCommand;
+import websocket.commands.UserMoveCommand;
+import websocket.messages.HighlightRequest;
+import websocket.messages.LoadGameMessage;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the handler over real WebSocket connections, with in-memory DAOs behind it.
+ */
+class ChessWebSocketHandlerTest {
+
+    private static final Gson GSON = new Gson();
+
+    /** A client session that queues every message it receives. */
+    private static final class Client implements WebSocket.Listener {
+        private final BlockingQueue<JsonObject> received = new LinkedBlockingQueue<>();
+        private final StringBuilder partial = new StringBuilder();
+        private WebSocket socket;
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                received.add(JsonParser.parseString(partial.toString()).getAsJsonObject());
+                partial.setLength(0);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        void send(Object message) {
+            socket.sendText(GSON.toJson(message), true).join();
+        }
+
+        /** Skips other messages until one of the given server message type arrives */
+        JsonObject next(String type) throws InterruptedException {
+            return next(type, message -> message.has("serverMessageType")
+                    && message.get("serverMessageType").getAsString().equals(type));
+        }
+
+        /** Skips other messages until a highlight response, which has no message type, arrives */
+        JsonObject nextHighlight() throws InterruptedException {
+            return next("highlight", message -> !message.has("serverMessageType"));
+        }
+
+        private JsonObject next(String description, Predicate<JsonObject> wanted) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (true) {
+                JsonObject message = received.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                assertNotNull(message, "no " + description + " received");
+                if (wanted.test(message)) {
+                    return message;
+                }
+            }
+        }
+    }
+
+    private CachingAuthDAO authDAO;
+    private ChessWebSocketHandler handler;
+    private Javalin app;
+    private final List<Client> clients = new ArrayList<>();
+    private int gameID;
+    private int otherGameID;
+
+    @BeforeEach
+    void setup() throws Exception {
+        authDAO = new CachingAuthDAO(new InMemoryAuth(), 100, 60_000, 1_000);
+        InMemoryGame gameDAO = new InMemoryGame();
+        GameService gameService = new GameService(authDAO, gameDAO, new InMemoryUser());
+        handler = new ChessWebSocketHandler(gameService, new LegalMoveCache(1_000));
+        authDAO.addRevocationListener(handler::revoke);
+        app = Javalin.create().ws("/ws", handler::configure).start(0);
+
+        authDAO.createAuth(new AuthData("white-token", "white"));
+        authDAO.createAuth(new AuthData("black-token", "black"));
+        gameID = gameDAO.createGame(new GameData(1, "game", "white", "black", new ChessGame()));
+        otherGameID = 2;
+        gameDAO.createGame(new GameData(otherGameID, "other", "black", "white", new ChessGame()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        clients.forEach(client -> client.socket.abort());
+        app.stop();
+    }
+
+    private Client open() {
+        Client client = new Client();
+        client.socket = HttpClient.newHttpClient().newWebSocketBuilder()
+                .buildAsync(URI.create("ws://localhost:" + app.port() + "/ws"), client).join();
+        clients.add(client);
+        return client;
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+
+    private static LoadGameMessage loadGame(JsonObject message) {
+        return GSON.fromJson(message, LoadGameMessage.class);
+    }
+
+    private Client connect(String token) throws InterruptedException {
+        Client client = open();
+        client.send(new UserGameCommand(UserGameCommand.CommandType.CONNECT, token, gameID));
+        client.next("LOAD_GAME");
+        return client;
+    }
+
+    private static HighlightRequest highlight(int gameID) {
+        return new HighlightRequest(gameID, List.of(new ChessPosition(2, 5)));
+    }
+
+    private static String error(Client client) throws InterruptedException {
+        return client.next("ERROR").get("errorMessage").getAsString();
+    }
+
+    @Test
+    void testLegalMovesOnlyGoToSessionsThatAskedForThem() throws Exception {
+        Client white = open();
+        white.send(new UserGameCommand(UserGameCommand.CommandType.CONNECT, "white-token", gameID, true));
+        assertEquals(20, loadGame(white.next("LOAD_GAME")).getLegalMoves().size());
+
+        Client black = open();
+        black.send(new UserGameCommand(UserGameCommand.CommandType.CONNECT, "black-token", gameID));
+        assertFalse(black.next("LOAD_GAME").has("legalMoves"));
+
+        white.send(new UserMoveCommand("white-token", gameID, move(2, 5, 4, 5)));
+        List<ChessMove> blackReplies = loadGame(white.next("LOAD_GAME")).getLegalMoves();
+        assertEquals(20, blackReplies.size());
+        assertTrue(blackReplies.contains(move(7, 5, 5, 5)));
+        JsonObject plain = black.next("LOAD_GAME");
+        assertFalse(plain.has("legalMoves"));
+        assertNotNull(loadGame(plain).getGame());
+    }
+
+    @Test
+    void testRevokedTokenIsRejectedOnAnOpenSession() throws Exception {
+        Client white = connect("white-token");
+        white.send(highlight(gameID));
+        assertEquals(2, white.nextHighlight().getAsJsonArray("positions").size());
+
+        authDAO.deleteAuth("white-token");
+        white.send(highlight(gameID));
+        assertEquals("unauthorized", error(white));
+        white.send(new UserMoveCommand("white-token", gameID, move(2, 5, 4, 5)));
+        assertEquals("unauthorized", error(white));
+    }
+
+    @Test
+    void testClearRevokesEverySession() throws Exception {
+        Client white = connect("white-token");
+        Client black = connect("black-token");
+
+        authDAO.clear();
+        for (Client client : List.of(white, black)) {
+            client.send(highlight(gameID));
+            assertEquals("unauthorized", error(client));
+        }
+        white.send(new UserMoveCommand("white-token", gameID, move(2, 5, 4, 5)));
+        assertEquals("unauthorized", error(white));
+    }
+
+    @Test
+    void testHighlightForAnotherGameIsRejected() throws Exception {
+        Client white = connect("white-token");
+        white.send(highlight(otherGameID));
+        assertEquals("unauthorized", error(white));
+
+        white.send(highlight(gameID));
+        assertEquals(gameID, white.nextHighlight().get("gameID").getAsInt());
+    }
+}
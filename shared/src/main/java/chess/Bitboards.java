@@ -0,0 +1,51 @@
+package chess;
+
+/**
+ * Square indexing and bit helpers shared by the board and the move generator.
+ * <p>
+ * Squares are numbered 0-63 starting at row 1, column 1 (a1) and running
+ * along each row, so square = (row - 1) * 8 + (column - 1).
+ */
+final class Bitboards {
+
+    static final int TEAMS = 2;
+    static final int PIECE_TYPES = 6;
+
+    private Bitboards() {
+    }
+
+    static int square(int row, int col) {
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    static boolean onBoard(int row, int col) {
+        return row >= 1 && row <= 8 && col >= 1 && col <= 8;
+    }
+
+    static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    static int col(int square) {
+        return (square & 7) + 1;
+    }
+
+    static long bit(int square) {
+        return 1L << square;
+    }
+
+    static ChessPosition position(int square) {
+        return ChessPosition.of(row(square), col(square));
+    }
+
+    /**
+     * Index of a piece set in the board's twelve bitboards: one per team and piece type.
+     */
+    static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * PIECE_TYPES + type.ordinal();
+    }
+}
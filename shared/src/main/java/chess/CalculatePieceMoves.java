@@ -6,95 +6,96 @@ import java.util.List;
 
 public class CalculatePieceMoves {
 
-    public static void exploreDirections(
-            ChessBoard board, ChessPosition myPosition,
-            ChessPiece piece, int drow, int dcol,
-            boolean repeat, List<ChessMove> moves) {
-
-        int newRow = myPosition.getRow() + drow;
-        int newCol = myPosition.getColumn() + dcol;
-
-        while (newRow >= 1 && newCol >= 1 && newRow <= 8 && newCol <= 8) {
-            ChessPosition newPos = new ChessPosition(newRow, newCol);
-            ChessPiece occupyingPiece = board.getPiece(newPos);
-
-            if (occupyingPiece == null) {
-                moves.add(new ChessMove(myPosition, newPos, null));
-            } else {
-                if (piece.getTeamColor() != occupyingPiece.getTeamColor()) {
-                    moves.add(new ChessMove(myPosition, newPos, null));
-                }
-                break;
-            }
+    private static final int[][] KNIGHT_OFFSETS = {
+            {2, -1}, {2, 1}, {-2, 1}, {-2, -1},
+            {1, 2}, {-1, 2}, {1, -2}, {-1, -2}
+    };
+    private static final int[][] KING_OFFSETS = {
+            {1, -1}, {-1, -1}, {1, 1}, {-1, 1},
+            {1, 0}, {-1, 0}, {0, 1}, {0, -1}
+    };
+
+    // Target squares per square, built once at class load instead of per call
+    static final long[] KNIGHT_ATTACKS = new long[64];
+    static final long[] KING_ATTACKS = new long[64];
+    // Squares a pawn of each team (by TeamColor ordinal) attacks from each square
+    static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT_ATTACKS[square] = offsetTargets(square, KNIGHT_OFFSETS);
+            KING_ATTACKS[square] = offsetTargets(square, KING_OFFSETS);
+            PAWN_ATTACKS[ChessGame.TeamColor.WHITE.ordinal()][square] =
+                    offsetTargets(square, new int[][]{{1, -1}, {1, 1}});
+            PAWN_ATTACKS[ChessGame.TeamColor.BLACK.ordinal()][square] =
+                    offsetTargets(square, new int[][]{{-1, -1}, {-1, 1}});
+        }
+    }
 
-            if (!repeat) {
-                break;
+    private static long offsetTargets(int square, int[][] offsets) {
+        long targets = 0;
+        for (int[] offset : offsets) {
+            int row = Bitboards.row(square) + offset[0];
+            int col = Bitboards.col(square) + offset[1];
+            if (Bitboards.onBoard(row, col)) {
+                targets |= Bitboards.bit(Bitboards.square(row, col));
             }
-            newRow += drow;
-            newCol += dcol;
         }
+        return targets;
     }
 
     public static Collection<ChessMove> bishopmoves(
             ChessBoard board, ChessPosition myPosition, ChessPiece piece) {
 
-        List<ChessMove> moves = new ArrayList<>();
-        int[][] dirs = {{1, -1}, {-1, -1}, {1, 1}, {-1, 1}};
-        for (int[] dir : dirs) {
-            exploreDirections(board, myPosition, piece, dir[0], dir[1], true, moves);
-        }
-        return moves;
+        long attacks = bishopAttacks(Bitboards.square(myPosition), board.occupied());
+        return targetMoves(board, myPosition, piece, attacks);
     }
 
     public static Collection<ChessMove> rookmoves(
             ChessBoard board, ChessPosition myPosition, ChessPiece piece) {
 
-        List<ChessMove> moves = new ArrayList<>();
-        int[][] dirs = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
-        for (int[] dir : dirs) {
-            exploreDirections(board, myPosition, piece, dir[0], dir[1], true, moves);
-        }
-        return moves;
+        long attacks = rookAttacks(Bitboards.square(myPosition), board.occupied());
+        return targetMoves(board, myPosition, piece, attacks);
     }
 
     public static Collection<ChessMove> queenmoves(
             ChessBoard board, ChessPosition myPosition, ChessPiece piece) {
 
-        List<ChessMove> moves = new ArrayList<>();
-        int[][] dirs = {
-                {1, -1}, {-1, -1}, {1, 1}, {-1, 1},
-                {1, 0}, {-1, 0}, {0, 1}, {0, -1}
-        };
-        for (int[] dir : dirs) {
-            exploreDirections(board, myPosition, piece, dir[0], dir[1], true, moves);
-        }
-        return moves;
+        int square = Bitboards.square(myPosition);
+        long attacks = bishopAttacks(square, board.occupied()) | rookAttacks(square, board.occupied());
+        return targetMoves(board, myPosition, piece, attacks);
     }
 
     public static Collection<ChessMove> kingmoves(
             ChessBoard board, ChessPosition myPosition, ChessPiece piece) {
 
-        List<ChessMove> moves = new ArrayList<>();
-        int[][] dirs = {
-                {1, -1}, {-1, -1}, {1, 1}, {-1, 1},
-                {1, 0}, {-1, 0}, {0, 1}, {0, -1}
-        };
-        for (int[] dir : dirs) {
-            exploreDirections(board, myPosition, piece, dir[0], dir[1], false, moves);
-        }
-        return moves;
+        return tableMoves(board, myPosition, piece, KING_ATTACKS);
     }
 
     public static Collection<ChessMove> knightmoves(
             ChessBoard board, ChessPosition myPosition, ChessPiece piece) {
 
-        List<ChessMove> moves = new ArrayList<>();
-        int[][] dirs = {
-                {2, -1}, {2, 1}, {-2, 1}, {-2, -1},
-                {1, 2}, {-1, 2}, {1, -2}, {-1, -2}
-        };
-        for (int[] dir : dirs) {
-            exploreDirections(board, myPosition, piece, dir[0], dir[1], false, moves);
+        return tableMoves(board, myPosition, piece, KNIGHT_ATTACKS);
+    }
+
+    private static Collection<ChessMove> tableMoves(
+            ChessBoard board, ChessPosition myPosition, ChessPiece piece, long[] table) {
+
+        return targetMoves(board, myPosition, piece, table[Bitboards.square(myPosition)]);
+    }
+
+    /**
+     * Turns an attack set into moves, dropping squares held by the piece's own team.
+     */
+    private static Collection<ChessMove> targetMoves(
+            ChessBoard board, ChessPosition myPosition, ChessPiece piece, long attacks) {
+
+        long targets = attacks & ~board.teamPieces(piece.getTeamColor());
+        List<ChessMove> moves = new ArrayList<>(Long.bitCount(targets));
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moves.add(new ChessMove(myPosition, Bitboards.position(to), null));
         }
         return moves;
     }
@@ -119,7 +120,7 @@ public class CalculatePieceMoves {
             ChessBoard board, ChessPosition pos, ChessPiece piece,
             List<ChessMove> moves, int row, int col, int dir, int newRow) {
 
-        ChessPosition forward = new ChessPosition(newRow, col);
+        ChessPosition forward = ChessPosition.of(newRow, col);
         ChessPiece frontPiece = board.getPiece(forward);
         if (frontPiece != null) {
             return;
@@ -136,7 +137,7 @@ public class CalculatePieceMoves {
                         || (piece.getTeamColor() == ChessGame.TeamColor.BLACK && row == 7);
 
         if (startRow) {
-            ChessPosition doublePos = new ChessPosition(row + dir + dir, col);
+            ChessPosition doublePos = ChessPosition.of(row + dir + dir, col);
             if (board.getPiece(doublePos) == null) {
                 moves.add(new ChessMove(pos, doublePos, null));
             }
@@ -154,7 +155,7 @@ public class CalculatePieceMoves {
                 continue;
             }
 
-            ChessPosition diagPos = new ChessPosition(newRow, newCol);
+            ChessPosition diagPos = ChessPosition.of(newRow, newCol);
             ChessPiece diagPiece = board.getPiece(diagPos);
             if (diagPiece == null) {
                 continue;
@@ -186,4 +187,42 @@ public class CalculatePieceMoves {
     private static boolean inBounds(int row, int col) {
         return row >= 1 && row <= 8 && col >= 1 && col <= 8;
     }
+
+    // ----------------- Attack queries -----------------
+
+    /**
+     * Checks whether any piece of a team attacks a square, by looking outward from
+     * that square with the attack tables rather than generating the team's moves.
+     *
+     * @param board   the board to inspect
+     * @param square  the square that may be attacked
+     * @param byColor the attacking team
+     * @return true if at least one piece of {@code byColor} attacks the square
+     */
+    public static boolean isSquareAttacked(ChessBoard board, ChessPosition square, ChessGame.TeamColor byColor) {
+        return attackersTo(board, Bitboards.square(square), byColor, board.occupied()) != 0;
+    }
+
+    /**
+     * @return the pieces of {@code byColor} attacking a square when the board holds {@code occupied}
+     */
+    static long attackersTo(ChessBoard board, int square, ChessGame.TeamColor byColor, long occupied) {
+        ChessGame.TeamColor defender = byColor == ChessGame.TeamColor.WHITE
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long queens = board.pieces(byColor, ChessPiece.PieceType.QUEEN);
+        return (KNIGHT_ATTACKS[square] & board.pieces(byColor, ChessPiece.PieceType.KNIGHT))
+                | (KING_ATTACKS[square] & board.pieces(byColor, ChessPiece.PieceType.KING))
+                // a pawn attacks this square from wherever a defending pawn here would attack
+                | (PAWN_ATTACKS[defender.ordinal()][square] & board.pieces(byColor, ChessPiece.PieceType.PAWN))
+                | (rookAttacks(square, occupied) & (board.pieces(byColor, ChessPiece.PieceType.ROOK) | queens))
+                | (bishopAttacks(square, occupied) & (board.pieces(byColor, ChessPiece.PieceType.BISHOP) | queens));
+    }
+
+    static long rookAttacks(int square, long occupied) {
+        return MagicBitboards.rookAttacks(square, occupied);
+    }
+
+    static long bishopAttacks(int square, long occupied) {
+        return MagicBitboards.bishopAttacks(square, occupied);
+    }
 }
@@ -1,16 +1,34 @@
 package chess;
 
+import com.google.gson.annotations.JsonAdapter;
+
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * The board is stored as twelve 64-bit piece sets (one per team and piece type)
+ * plus per-team and total occupancy masks, with a 64-entry mailbox alongside so
+ * {@link #getPiece} stays a single array read. King squares and each team's piece
+ * list are read straight off those sets, so they can never drift from the board.
+ * A Zobrist key of the placement is kept up to date on every change, which makes
+ * {@link #hashCode} O(1).
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessBoardAdapter.class)
 public class ChessBoard {
 
-    ChessPiece[][] squares = new ChessPiece[8][8];
+    private final long[] pieceSets = new long[Bitboards.TEAMS * Bitboards.PIECE_TYPES];
+    private final long[] teamSets = new long[Bitboards.TEAMS];
+    private long occupied;
+    private final ChessPiece[] mailbox = new ChessPiece[64];
+    // Zobrist key of the pieces on the board, updated on every square change
+    private long key;
+
     public ChessBoard() {
 
     }
@@ -22,7 +40,7 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        squares[position.getRow()-1][position.getColumn()-1] = piece;
+        setSquare(Bitboards.square(position), piece);
     }
 
     /**
@@ -33,62 +51,179 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return squares[position.getRow()-1][position.getColumn()-1];
+        return mailbox[Bitboards.square(position)];
     }
 
     public ChessBoard copy(){
         ChessBoard newBoard = new ChessBoard();
-        for(int row = 1; row <= 8; row++){
-            for(int col = 1; col <= 8; col++){
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = this.getPiece(pos);
-                if(piece != null){
-                    newBoard.addPiece(pos, new ChessPiece(piece.getTeamColor(), piece.getPieceType()));
-                }
-            }
-        }
+        System.arraycopy(pieceSets, 0, newBoard.pieceSets, 0, pieceSets.length);
+        System.arraycopy(teamSets, 0, newBoard.teamSets, 0, teamSets.length);
+        System.arraycopy(mailbox, 0, newBoard.mailbox, 0, mailbox.length);
+        newBoard.occupied = occupied;
+        newBoard.key = key;
         return newBoard;
     }
 
+    // ----------------- Square-index access for the engine -----------------
+
+    ChessPiece pieceAt(int square) {
+        return mailbox[square];
+    }
+
+    /**
+     * Places a piece on (or, with null, clears) a square, keeping every bitboard in step.
+     */
+    void setSquare(int square, ChessPiece piece) {
+        ChessPiece old = mailbox[square];
+        long mask = Bitboards.bit(square);
+        if (old != null) {
+            pieceSets[Bitboards.pieceIndex(old.getTeamColor(), old.getPieceType())] &= ~mask;
+            teamSets[old.getTeamColor().ordinal()] &= ~mask;
+            occupied &= ~mask;
+            key ^= Zobrist.pieceKey(old, square);
+        }
+        mailbox[square] = piece;
+        if (piece != null) {
+            pieceSets[Bitboards.pieceIndex(piece.getTeamColor(), piece.getPieceType())] |= mask;
+            teamSets[piece.getTeamColor().ordinal()] |= mask;
+            occupied |= mask;
+            key ^= Zobrist.pieceKey(piece, square);
+        }
+    }
+
+    /**
+     * Plays a packed move without any legality checks.
+     *
+     * @return the captured piece (or null), which {@link #unmakeMove} needs to take the move back
+     */
+    ChessPiece makeMove(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        ChessPiece moving = mailbox[from];
+        ChessPiece captured = mailbox[to];
+        ChessPiece.PieceType promotion = PackedMove.promotion(move);
+        setSquare(to, promotion == null ? moving : ChessPiece.of(moving.getTeamColor(), promotion));
+        setSquare(from, null);
+        return captured;
+    }
+
+    /**
+     * Takes back a move played with {@link #makeMove}.
+     */
+    void unmakeMove(int move, ChessPiece captured) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        ChessPiece moved = mailbox[to];
+        if (PackedMove.promotion(move) != null) {
+            moved = ChessPiece.of(moved.getTeamColor(), ChessPiece.PieceType.PAWN);
+        }
+        setSquare(from, moved);
+        setSquare(to, captured);
+    }
+
+    long pieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceSets[Bitboards.pieceIndex(color, type)];
+    }
+
+    long teamPieces(ChessGame.TeamColor color) {
+        return teamSets[color.ordinal()];
+    }
+
+    long occupied() {
+        return occupied;
+    }
+
+    /**
+     * @return the Zobrist key of the piece placement (side to move is added by {@link ChessGame})
+     */
+    long zobristKey() {
+        return key;
+    }
+
+    /**
+     * @return the square of the team's king, or -1 if it has none
+     */
+    int kingSquare(ChessGame.TeamColor color) {
+        long king = pieces(color, ChessPiece.PieceType.KING);
+        return king == 0 ? -1 : Long.numberOfTrailingZeros(king);
+    }
+
+    /**
+     * Gets where a team's king stands without scanning the board
+     *
+     * @param color the team to look up
+     * @return the king's position, or null if that team has no king on the board
+     */
+    public ChessPosition getKingPosition(ChessGame.TeamColor color) {
+        int square = kingSquare(color);
+        return square < 0 ? null : Bitboards.position(square);
+    }
+
+    /**
+     * Gets the positions of every piece a team has on the board, in square order
+     *
+     * @param color the team to look up
+     * @return one position per piece, costing O(pieces) rather than a 64-square scan
+     */
+    public List<ChessPosition> getTeamPositions(ChessGame.TeamColor color) {
+        long team = teamPieces(color);
+        List<ChessPosition> positions = new ArrayList<>(Long.bitCount(team));
+        while (team != 0) {
+            positions.add(Bitboards.position(Long.numberOfTrailingZeros(team)));
+            team &= team - 1;
+        }
+        return positions;
+    }
 
     /**
      * Sets the board to the default starting board
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(1, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 4), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(1, 6), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 7), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        Arrays.fill(pieceSets, 0);
+        Arrays.fill(teamSets, 0);
+        Arrays.fill(mailbox, null);
+        occupied = 0;
+        key = 0;
+
+        addPiece(ChessPosition.of(1, 1), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(1, 2), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(1, 3), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(1, 4), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(1, 5), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(1, 6), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(1, 7), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(1, 8), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
         for(int i = 1; i <= 8; i++) {
-            addPiece(new ChessPosition(2, i), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(2, i), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
         }
-        addPiece(new ChessPosition(8, 1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(8, 2), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 3), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(8, 6), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 7), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(8, 1), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(8, 2), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(8, 3), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(8, 4), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(8, 5), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(8, 6), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(8, 7), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(8, 8), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
         for(int i = 1; i <= 8; i++) {
-            addPiece(new ChessPosition(7, i), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(7, i), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
         }
 
     }
 
     @Override
     public boolean equals(Object obj) {
-        ChessBoard other =  (ChessBoard) obj;
-        return Arrays.deepEquals(squares, other.squares);
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ChessBoard other)) {
+            return false;
+        }
+        return Arrays.equals(pieceSets, other.pieceSets);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(squares);
+        return Long.hashCode(key);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,58 @@
+package chess;
+
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+
+import java.lang.reflect.Type;
+
+/**
+ * Gson mapping for {@link ChessBoard}.
+ * <p>
+ * Boards are written in the original {"squares": [[...]]} layout so games already
+ * stored in the database (and older clients) keep working, and are read back
+ * through {@link ChessBoard#addPiece} so the bitboards are rebuilt. Pieces read
+ * from JSON are swapped for the shared {@link ChessPiece#of} instances.
+ */
+class ChessBoardAdapter implements JsonSerializer<ChessBoard>, JsonDeserializer<ChessBoard> {
+
+    private static final String SQUARES = "squares";
+
+    @Override
+    public JsonElement serialize(ChessBoard board, Type type, JsonSerializationContext context) {
+        ChessPiece[][] squares = new ChessPiece[8][8];
+        for (int square = 0; square < 64; square++) {
+            squares[square >>> 3][square & 7] = board.pieceAt(square);
+        }
+        JsonObject json = new JsonObject();
+        json.add(SQUARES, context.serialize(squares));
+        return json;
+    }
+
+    @Override
+    public ChessBoard deserialize(JsonElement json, Type type, JsonDeserializationContext context)
+            throws JsonParseException {
+        ChessBoard board = new ChessBoard();
+        if (json == null || !json.isJsonObject()) {
+            return board;
+        }
+        ChessPiece[][] squares = context.deserialize(json.getAsJsonObject().get(SQUARES), ChessPiece[][].class);
+        if (squares == null) {
+            return board;
+        }
+        for (int row = 0; row < squares.length && row < 8; row++) {
+            for (int col = 0; squares[row] != null && col < squares[row].length && col < 8; col++) {
+                ChessPiece piece = squares[row][col];
+                if (piece != null) {
+                    board.addPiece(ChessPosition.of(row + 1, col + 1),
+                            ChessPiece.of(piece.getTeamColor(), piece.getPieceType()));
+                }
+            }
+        }
+        return board;
+    }
+}
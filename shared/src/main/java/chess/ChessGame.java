@@ -1,7 +1,6 @@
 package chess;
 
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Objects;
 
 /**
@@ -14,7 +13,14 @@ public class ChessGame {
     private ChessPosition enPassantTarget;
     private boolean hasMoved;
     private TeamColor winner;
-
+    // Created at the first move, so games saved before histories existed start one then
+    private MoveHistory history;
+    // Status of the last position asked about, reused until the board or turn changes.
+    // statusKey is the board's Zobrist key when it was computed, which also catches
+    // edits made directly through getBoard().
+    private transient GameStatus status;
+    private transient ChessBoard statusBoard;
+    private transient long statusKey;
 
     public ChessGame() {
         this.board = new ChessBoard();
@@ -22,6 +28,31 @@ public class ChessGame {
         this.currentTurn = TeamColor.WHITE;
     }
 
+    /**
+     * Starts a game from a board that is already set up, without building the starting position first.
+     */
+    ChessGame(ChessBoard board, TeamColor turn) {
+        this.board = board;
+        this.currentTurn = turn;
+    }
+
+    private ChessGame(ChessGame other) {
+        this.board = other.board.copy();
+        this.currentTurn = other.currentTurn;
+        this.enPassantTarget = other.enPassantTarget;
+        this.hasMoved = other.hasMoved;
+        this.winner = other.winner;
+        this.history = other.history == null ? null : other.history.copy();
+    }
+
+    /**
+     * @return an independent copy of this game, safe to read on another thread
+     * while this one keeps changing
+     */
+    public ChessGame copy() {
+        return new ChessGame(this);
+    }
+
 
     public enum TeamColor {
         WHITE, BLACK
@@ -31,16 +62,32 @@ public class ChessGame {
         return currentTurn;
     }
 
+    /**
+     * Sets whose turn it is. The moves recorded so far no longer lead to this position,
+     * so the history starts over from here.
+     */
     public void setTeamTurn(TeamColor team) {
         this.currentTurn = team;
+        positionReplaced();
     }
 
     public ChessBoard getBoard() {
         return board;
     }
 
+    /**
+     * Replaces the board. The moves recorded so far no longer lead to this position,
+     * so the history starts over from here.
+     */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        positionReplaced();
+    }
+
+    private void positionReplaced() {
+        history = null;
+        status = null;
+        statusBoard = null;
     }
 
     /**
@@ -51,18 +98,42 @@ public class ChessGame {
         if (piece == null) {
             return null;
         }
+        MoveList moves = new MoveList();
+        LegalMoveGenerator.generate(board, Bitboards.square(startPosition), moves);
+        return moves.toChessMoves();
+    }
 
-        Collection<ChessMove> moves = new HashSet<>(piece.pieceMoves(board, startPosition));
-
-        // filter out moves that leave own king in check
-        moves.removeIf(move -> {
-            ChessBoard temp = board.copy();
-            makeMoveOnBoard(temp, move);
-            return isInCheck(piece.getTeamColor(), temp);
-        });
+    /**
+     * Gets every legal move for a team, working out checks and pins once for the
+     * whole position rather than testing each candidate move.
+     */
+    public Collection<ChessMove> legalMoves(TeamColor teamColor) {
+        MoveList moves = new MoveList();
+        legalMoves(teamColor, moves);
+        return moves.toChessMoves();
+    }
 
+    /**
+     * Appends every legal move for a team to a caller-owned buffer as packed ints,
+     * so repeated generation does not allocate.
+     */
+    public void legalMoves(TeamColor teamColor, MoveList moves) {
+        LegalMoveGenerator.generate(board, teamColor, moves);
+    }
 
-        return moves;
+    /**
+     * Checks whether a move is legal for the piece that stands on its start square,
+     * without generating that piece's other moves.
+     */
+    public boolean isLegal(ChessMove move) {
+        ChessPosition start = move.getStartPosition();
+        ChessPosition end = move.getEndPosition();
+        if (!Bitboards.onBoard(start.getRow(), start.getColumn())
+                || !Bitboards.onBoard(end.getRow(), end.getColumn())) {
+            return false;
+        }
+        return LegalMoveGenerator.isLegal(board, Bitboards.square(start), Bitboards.square(end),
+                move.getPromotionPiece());
     }
 
     /**
@@ -78,17 +149,16 @@ public class ChessGame {
             throw new InvalidMoveException("Not your turn!");
         }
 
-        Collection<ChessMove> legalMoves = validMoves(move.getStartPosition());
-        if (legalMoves == null || !legalMoves.contains(move)) {
+        if (!isLegal(move)) {
             throw new InvalidMoveException("Invalid move!");
         }
 
         // Apply the move first
-        makeMoveOnBoard(board, move);
+        applyMove(move);
 
-        // Check for checkmate AFTER the move
+        // Check for checkmate AFTER the move; the status stays cached for the new position
         TeamColor opponent = (currentTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-        if (isInCheckmate(opponent)) {
+        if (getStatus(opponent).isCheckmate()) {
             winner = currentTurn; // current player wins
         }
 
@@ -110,93 +180,146 @@ public class ChessGame {
      * Checks if a team is in checkmate.
      */
     public boolean isInCheckmate(TeamColor teamColor) {
+        GameStatus cached = cachedStatus(teamColor);
+        if (cached != null) {
+            return cached.isCheckmate();
+        }
         return isInCheck(teamColor) && !hasAnyLegalMoves(teamColor);
     }
 
     public boolean isInStalemate(TeamColor teamColor) {
+        GameStatus cached = cachedStatus(teamColor);
+        if (cached != null) {
+            return cached.isStalemate();
+        }
         return !isInCheck(teamColor) && !hasAnyLegalMoves(teamColor);
     }
 
     /**
-     * Helper: checks if the given team has at least one valid move.
+     * Gets the status of the side to move. Computed once per position and kept
+     * until the next move or board change.
      */
-    private boolean hasAnyLegalMoves(TeamColor teamColor) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(pos);
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    if (!validMoves(pos).isEmpty()) {
-                        return true;
-                    }
-                }
-            }
+    public GameStatus getStatus() {
+        return getStatus(currentTurn);
+    }
+
+    /**
+     * Gets the status of a team in the current position, classifying it only if this
+     * position and team have not been asked about already. Classifying stops at the first
+     * legal move found; the full count is left to {@link GameStatus#legalMoveCount()}.
+     */
+    public GameStatus getStatus(TeamColor teamColor) {
+        GameStatus cached = cachedStatus(teamColor);
+        if (cached != null) {
+            return cached;
+        }
+        boolean canMove = hasAnyLegalMoves(teamColor);
+        boolean check = isInCheck(teamColor);
+        GameStatus.State state;
+        if (!canMove) {
+            state = check ? GameStatus.State.CHECKMATE : GameStatus.State.STALEMATE;
+        } else {
+            state = check ? GameStatus.State.CHECK : GameStatus.State.ONGOING;
         }
-        return false;
+        status = new GameStatus(teamColor, state, canMove ? board.copy() : null);
+        statusBoard = board;
+        statusKey = board.zobristKey();
+        return status;
     }
 
-    // ----------------- Helper Methods -----------------
+    /**
+     * @return the cached status if it still describes this team in the current position, else null
+     */
+    private GameStatus cachedStatus(TeamColor teamColor) {
+        GameStatus cached = status;
+        if (cached != null && cached.team() == teamColor
+                && statusBoard == board && statusKey == board.zobristKey()) {
+            return cached;
+        }
+        return null;
+    }
 
     /**
-     * Apply a move to a given board (does not check legality).
+     * Helper: checks if the given team has at least one valid move, stopping at the first.
      */
-    private void makeMoveOnBoard(ChessBoard b, ChessMove move) {
-        ChessPiece movingPiece = b.getPiece(move.getStartPosition());
+    private boolean hasAnyLegalMoves(TeamColor teamColor) {
+        return LegalMoveGenerator.hasAnyLegalMove(board, teamColor);
+    }
 
-        // handle promotion
-        if (move.getPromotionPiece() != null) {
-            movingPiece = new ChessPiece(movingPiece.getTeamColor(), move.getPromotionPiece());
-        }
+    // ----------------- Helper Methods -----------------
 
-        // move the piece
-        b.addPiece(move.getEndPosition(), movingPiece);
-        b.addPiece(move.getStartPosition(), null); // clear old square
+    /**
+     * Apply a move to the game's board (does not check legality), recording it and
+     * the captured piece in the history.
+     */
+    private void applyMove(ChessMove move) {
+        if (history == null) {
+            history = new MoveHistory(Fen.format(this));
+        }
+        int packed = PackedMove.encode(board, move);
+        history.add(packed, board.makeMove(packed));
     }
 
     /**
      * Check if a team is in check on a given board state.
      */
     private boolean isInCheck(TeamColor teamColor, ChessBoard b) {
-        ChessPosition kingPos = findKing(teamColor, b);
-        if (kingPos == null) {
-            return false;
-        }
+        return LegalMoveGenerator.isInCheck(b, teamColor);
+    }
 
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = b.getPiece(pos);
-                if (piece == null || piece.getTeamColor() == teamColor) {
-                    continue;
-                }
-
-                Collection<ChessMove> moves = piece.pieceMoves(b, pos);
-                for (ChessMove m : moves) {
-                    if (m.getEndPosition().equals(kingPos)) {
-                        return true;
-                    }
-                }
-            }
+    /**
+     * Gets a 64-bit Zobrist key identifying the position: piece placement and side to
+     * move. Maintained incrementally, so this is O(1).
+     */
+    public long positionKey() {
+        long key = board.zobristKey();
+        if (currentTurn == TeamColor.BLACK) {
+            key ^= Zobrist.BLACK_TO_MOVE;
         }
-        return false;
+        return key;
     }
 
     /**
-     * Find the king of a given team on a board.
+     * @return the moves played so far; empty if none have been
      */
-    private ChessPosition findKing(TeamColor teamColor, ChessBoard b) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = b.getPiece(pos);
-                if (piece != null &&
-                        piece.getTeamColor() == teamColor &&
-                        piece.getPieceType() == ChessPiece.PieceType.KING) {
-                    return pos;
-                }
+    public MoveHistory getHistory() {
+        return history != null ? history : new MoveHistory(Fen.format(this));
+    }
+
+    void setHistory(MoveHistory history) {
+        this.history = history;
+    }
+
+    /**
+     * Rebuilds the game as it was after {@code ply} plies of its history. Replays forward
+     * from the start position or takes moves back from the current one, whichever is
+     * fewer moves; the result is a separate game.
+     *
+     * @throws IndexOutOfBoundsException if {@code ply} is negative or past the last move
+     */
+    public ChessGame replayTo(int ply) {
+        int played = history == null ? 0 : history.size();
+        if (ply == played) {
+            return copy();
+        }
+        getHistory().checkPly(ply, played);
+
+        ChessGame game;
+        if (ply <= played - ply) {
+            game = Fen.parse(history.getStartFen());
+            for (int i = 0; i < ply; i++) {
+                game.board.makeMove(history.packedMove(i));
+            }
+        } else {
+            game = copy();
+            for (int i = played - 1; i >= ply; i--) {
+                game.board.unmakeMove(history.packedMove(i), history.captured(i));
             }
         }
-        return null;
+        game.currentTurn = history.turnAfter(ply);
+        game.winner = null;
+        game.history = history.copy(ply);
+        return game;
     }
 
     public TeamColor getWinner() {
@@ -19,6 +19,33 @@ public class ChessPiece {
         this.type = type;
     }
 
+    /**
+     * Gets the shared instance for a team and piece type. Pieces are immutable, so
+     * boards and moves can all point at the same twelve objects.
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        if (pieceColor == null || type == null) {
+            return new ChessPiece(pieceColor, type);
+        }
+        return Flyweights.PIECES[pieceColor.ordinal()][type.ordinal()];
+    }
+
+    /**
+     * Holds the cached pieces; kept in its own class so it is built after both enums.
+     */
+    private static final class Flyweights {
+        private static final ChessPiece[][] PIECES =
+                new ChessPiece[ChessGame.TeamColor.values().length][PieceType.values().length];
+
+        static {
+            for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+                for (PieceType type : PieceType.values()) {
+                    PIECES[color.ordinal()][type.ordinal()] = new ChessPiece(color, type);
+                }
+            }
+        }
+    }
+
     /**
      * The various different chess piece options
      */
@@ -0,0 +1,80 @@
+package chess;
+
+/**
+ * The state of one side's position: whether it is in check, mated or stalemated,
+ * and how many legal moves it has.
+ * <p>
+ * Telling mate and stalemate apart only needs to know whether any legal move exists,
+ * so the full count is left until {@link #legalMoveCount()} is first called, on a copy
+ * of the position taken when the status was.
+ */
+public final class GameStatus {
+
+    public enum State {
+        ONGOING,
+        CHECK,
+        CHECKMATE,
+        STALEMATE
+    }
+
+    private final ChessGame.TeamColor team;
+    private final State state;
+    // The position to count moves in; null when the side has none
+    private final ChessBoard position;
+    private volatile int legalMoveCount = -1;
+
+    /**
+     * @param team     the side the status describes
+     * @param state    check / mate / stalemate classification
+     * @param position a copy of the board, or null if {@code team} has no legal moves
+     */
+    GameStatus(ChessGame.TeamColor team, State state, ChessBoard position) {
+        this.team = team;
+        this.state = state;
+        this.position = position;
+        if (position == null) {
+            legalMoveCount = 0;
+        }
+    }
+
+    public ChessGame.TeamColor team() {
+        return team;
+    }
+
+    public State state() {
+        return state;
+    }
+
+    /**
+     * @return the number of legal moves available to {@link #team()}, counted on first call
+     */
+    public int legalMoveCount() {
+        int count = legalMoveCount;
+        if (count < 0) {
+            count = LegalMoveGenerator.countLegalMoves(position, team);
+            legalMoveCount = count;
+        }
+        return count;
+    }
+
+    boolean legalMovesCounted() {
+        return legalMoveCount >= 0;
+    }
+
+    public boolean isCheck() {
+        return state == State.CHECK || state == State.CHECKMATE;
+    }
+
+    public boolean isCheckmate() {
+        return state == State.CHECKMATE;
+    }
+
+    public boolean isStalemate() {
+        return state == State.STALEMATE;
+    }
+
+    @Override
+    public String toString() {
+        return "GameStatus[team=" + team + ", state=" + state + "]";
+    }
+}
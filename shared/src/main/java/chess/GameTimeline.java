@@ -0,0 +1,97 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Random access to every position of a game.
+ * <p>
+ * Alongside the game's {@link MoveHistory}, a copy of the board is kept every
+ * {@code interval} plies. {@link #positionAt} starts from the nearest checkpoint at or
+ * before the requested ply and plays at most {@code interval - 1} moves, instead of
+ * replaying from the first move. {@link #update} extends the timeline as the game goes
+ * on, so each new move costs one make on the head board plus a board copy every
+ * {@code interval} plies. Thread safe.
+ */
+public final class GameTimeline {
+
+    private final int interval;
+    private final List<ChessBoard> checkpoints = new ArrayList<>();
+    private MoveHistory history;
+    private final ChessBoard head;
+
+    /**
+     * Builds the timeline of a game's history so far.
+     *
+     * @param interval plies between board checkpoints
+     */
+    public GameTimeline(ChessGame game, int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be at least 1: " + interval);
+        }
+        this.interval = interval;
+        MoveHistory source = game.getHistory();
+        this.history = source.copy(0);
+        this.head = Fen.parse(source.getStartFen()).getBoard();
+        checkpoints.add(head.copy());
+        update(game);
+    }
+
+    /**
+     * Adds the moves the game has played since the timeline last saw it.
+     *
+     * @return false, changing nothing, if the game's history does not continue this timeline's
+     */
+    public synchronized boolean update(ChessGame game) {
+        MoveHistory latest = game.getHistory();
+        if (!latest.extendsHistory(history)) {
+            return false;
+        }
+        for (int ply = history.size(); ply < latest.size(); ply++) {
+            head.makeMove(latest.packedMove(ply));
+            if ((ply + 1) % interval == 0) {
+                checkpoints.add(head.copy());
+            }
+        }
+        history = latest.copy();
+        return true;
+    }
+
+    /**
+     * @return the number of plies recorded
+     */
+    public synchronized int size() {
+        return history.size();
+    }
+
+    /**
+     * Rebuilds the game after {@code ply} plies, in at most {@code interval - 1} moves.
+     * The result is a separate game whose history ends at that ply.
+     *
+     * @throws IndexOutOfBoundsException if {@code ply} is negative or past the last move
+     */
+    public synchronized ChessGame positionAt(int ply) {
+        history.checkPly(ply, history.size());
+        int checkpoint = ply / interval;
+        ChessBoard board = checkpoints.get(checkpoint).copy();
+        for (int i = checkpoint * interval; i < ply; i++) {
+            board.makeMove(history.packedMove(i));
+        }
+        ChessGame game = new ChessGame(board, history.turnAfter(ply));
+        game.setHistory(history.copy(ply));
+        return game;
+    }
+
+    /**
+     * @return the moves played after {@code ply}, in order
+     * @throws IndexOutOfBoundsException if {@code ply} is negative or past the last move
+     */
+    public synchronized List<ChessMove> movesSince(int ply) {
+        history.checkPly(ply, history.size());
+        List<ChessMove> moves = new ArrayList<>(history.size() - ply);
+        for (int i = ply; i < history.size(); i++) {
+            moves.add(history.getMove(i));
+        }
+        return moves;
+    }
+}
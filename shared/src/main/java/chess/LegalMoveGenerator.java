@@ -0,0 +1,304 @@
+package chess;
+
+/**
+ * Generates strictly legal moves.
+ * <p>
+ * Instead of trying every pseudo-legal move and asking whether the king is left in
+ * check, the position is analysed once: which enemy pieces give check and which of
+ * our pieces are pinned to the king. Every piece's targets are then masked so only
+ * legal moves are ever produced. Moves are appended as {@link PackedMove} ints to a
+ * caller-owned {@link MoveList}.
+ */
+final class LegalMoveGenerator {
+
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT
+    };
+
+    /** Squares strictly between two squares on a shared rank, file or diagonal (0 otherwise). */
+    static final long[][] BETWEEN = new long[64][64];
+    /** The whole rank, file or diagonal through two aligned squares (0 otherwise). */
+    static final long[][] LINE = new long[64][64];
+
+    static {
+        int[][] directions = {
+                {1, -1}, {-1, -1}, {1, 1}, {-1, 1},
+                {1, 0}, {-1, 0}, {0, 1}, {0, -1}
+        };
+        for (int from = 0; from < 64; from++) {
+            for (int[] dir : directions) {
+                long line = Bitboards.bit(from)
+                        | ray(from, dir[0], dir[1]) | ray(from, -dir[0], -dir[1]);
+                long between = 0;
+                int row = Bitboards.row(from) + dir[0];
+                int col = Bitboards.col(from) + dir[1];
+                while (Bitboards.onBoard(row, col)) {
+                    int to = Bitboards.square(row, col);
+                    BETWEEN[from][to] = between;
+                    LINE[from][to] = line;
+                    between |= Bitboards.bit(to);
+                    row += dir[0];
+                    col += dir[1];
+                }
+            }
+        }
+    }
+
+    private LegalMoveGenerator() {
+    }
+
+    /**
+     * Appends every legal move for the given team to {@code moves}. Allocation free.
+     */
+    static void generate(ChessBoard board, ChessGame.TeamColor color, MoveList moves) {
+        int king = board.kingSquare(color);
+        long pinned = pinned(board, color, king);
+        long checkMask = checkMask(board, color, king);
+        long own = board.teamPieces(color);
+        while (own != 0) {
+            int from = Long.numberOfTrailingZeros(own);
+            own &= own - 1;
+            addMoves(board, color, from, king, pinned, checkMask, moves);
+        }
+    }
+
+    /**
+     * Checks whether the team has any legal move, stopping at the first piece that has one.
+     * The king is tried first since it is the piece most likely to have a move when in check.
+     * Allocation free.
+     */
+    static boolean hasAnyLegalMove(ChessBoard board, ChessGame.TeamColor color) {
+        int king = board.kingSquare(color);
+        long pinned = pinned(board, color, king);
+        long checkMask = checkMask(board, color, king);
+        if (king >= 0 && legalTargets(board, color, king, king, pinned, checkMask) != 0) {
+            return true;
+        }
+        long own = board.teamPieces(color);
+        while (own != 0) {
+            int from = Long.numberOfTrailingZeros(own);
+            own &= own - 1;
+            if (from != king && legalTargets(board, color, from, king, pinned, checkMask) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the team's legal moves from the target sets alone, without listing them.
+     * A promotion counts once per promotion piece. Allocation free.
+     */
+    static int countLegalMoves(ChessBoard board, ChessGame.TeamColor color) {
+        int king = board.kingSquare(color);
+        long pinned = pinned(board, color, king);
+        long checkMask = checkMask(board, color, king);
+        int promotionRow = color == ChessGame.TeamColor.WHITE ? 7 : 2;
+        long own = board.teamPieces(color);
+        int count = 0;
+        while (own != 0) {
+            int from = Long.numberOfTrailingZeros(own);
+            own &= own - 1;
+            int targets = Long.bitCount(legalTargets(board, color, from, king, pinned, checkMask));
+            boolean promotes = board.pieceAt(from).getPieceType() == ChessPiece.PieceType.PAWN
+                    && Bitboards.row(from) == promotionRow;
+            count += promotes ? targets * PROMOTIONS.length : targets;
+        }
+        return count;
+    }
+
+    /**
+     * Appends the legal moves of the piece on {@code from} (nothing if the square is empty).
+     */
+    static void generate(ChessBoard board, int from, MoveList moves) {
+        ChessPiece piece = board.pieceAt(from);
+        if (piece == null) {
+            return;
+        }
+        ChessGame.TeamColor color = piece.getTeamColor();
+        int king = board.kingSquare(color);
+        addMoves(board, color, from, king, pinned(board, color, king), checkMask(board, color, king), moves);
+    }
+
+    static boolean isInCheck(ChessBoard board, ChessGame.TeamColor color) {
+        int king = board.kingSquare(color);
+        return king >= 0 && CalculatePieceMoves.attackersTo(board, king, opponent(color), board.occupied()) != 0;
+    }
+
+    /**
+     * Checks a single move without generating the piece's other moves: the move must fit
+     * the piece's geometry (including promotion rules), then the king must be safe after
+     * making it, which is tested with one make/unmake on the board.
+     */
+    static boolean isLegal(ChessBoard board, int from, int to, ChessPiece.PieceType promotion) {
+        ChessPiece piece = board.pieceAt(from);
+        if (piece == null) {
+            return false;
+        }
+        ChessGame.TeamColor color = piece.getTeamColor();
+        long target = Bitboards.bit(to);
+        if ((pseudoTargets(board, piece, from) & ~board.teamPieces(color) & target) == 0) {
+            return false;
+        }
+        boolean promotes = piece.getPieceType() == ChessPiece.PieceType.PAWN
+                && Bitboards.row(from) == (color == ChessGame.TeamColor.WHITE ? 7 : 2);
+        if (promotes != (promotion != null)
+                || promotion == ChessPiece.PieceType.KING || promotion == ChessPiece.PieceType.PAWN) {
+            return false;
+        }
+
+        int move = PackedMove.encode(from, to, promotion, board.pieceAt(to) != null);
+        ChessPiece captured = board.makeMove(move);
+        boolean safe = !isInCheck(board, color);
+        board.unmakeMove(move, captured);
+        return safe;
+    }
+
+    private static void addMoves(ChessBoard board, ChessGame.TeamColor color, int from,
+                                 int king, long pinned, long checkMask, MoveList moves) {
+        long targets = legalTargets(board, color, from, king, pinned, checkMask);
+        long enemy = board.teamPieces(opponent(color));
+        boolean promotes = board.pieceAt(from).getPieceType() == ChessPiece.PieceType.PAWN
+                && Bitboards.row(from) == (color == ChessGame.TeamColor.WHITE ? 7 : 2);
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            boolean capture = (enemy & Bitboards.bit(to)) != 0;
+            if (promotes) {
+                for (ChessPiece.PieceType type : PROMOTIONS) {
+                    moves.add(PackedMove.encode(from, to, type, capture));
+                }
+            } else {
+                moves.add(PackedMove.encode(from, to, null, capture));
+            }
+        }
+    }
+
+    private static long legalTargets(ChessBoard board, ChessGame.TeamColor color, int from,
+                                     int king, long pinned, long checkMask) {
+        ChessPiece piece = board.pieceAt(from);
+        long own = board.teamPieces(color);
+        long occupied = board.occupied();
+
+        if (piece.getPieceType() == ChessPiece.PieceType.KING) {
+            // the king may not step onto an attacked square, including ones it currently shields from a slider
+            long candidates = CalculatePieceMoves.KING_ATTACKS[from] & ~own;
+            long withoutKing = occupied & ~Bitboards.bit(from);
+            ChessGame.TeamColor enemy = opponent(color);
+            long targets = 0;
+            while (candidates != 0) {
+                int to = Long.numberOfTrailingZeros(candidates);
+                candidates &= candidates - 1;
+                if (CalculatePieceMoves.attackersTo(board, to, enemy, withoutKing) == 0) {
+                    targets |= Bitboards.bit(to);
+                }
+            }
+            return targets;
+        }
+
+        long targets = pseudoTargets(board, piece, from) & ~own & checkMask;
+        if ((pinned & Bitboards.bit(from)) != 0) {
+            targets &= LINE[king][from];
+        }
+        return targets;
+    }
+
+    private static long pseudoTargets(ChessBoard board, ChessPiece piece, int from) {
+        long occupied = board.occupied();
+        return switch (piece.getPieceType()) {
+            case KNIGHT -> CalculatePieceMoves.KNIGHT_ATTACKS[from];
+            case BISHOP -> CalculatePieceMoves.bishopAttacks(from, occupied);
+            case ROOK -> CalculatePieceMoves.rookAttacks(from, occupied);
+            case QUEEN -> CalculatePieceMoves.bishopAttacks(from, occupied)
+                    | CalculatePieceMoves.rookAttacks(from, occupied);
+            case KING -> CalculatePieceMoves.KING_ATTACKS[from];
+            case PAWN -> pawnTargets(board, piece.getTeamColor(), from);
+        };
+    }
+
+    private static long pawnTargets(ChessBoard board, ChessGame.TeamColor color, int from) {
+        long occupied = board.occupied();
+        long targets = CalculatePieceMoves.PAWN_ATTACKS[color.ordinal()][from] & board.teamPieces(opponent(color));
+
+        int dir = color == ChessGame.TeamColor.WHITE ? 1 : -1;
+        int row = Bitboards.row(from);
+        int col = Bitboards.col(from);
+        if (!Bitboards.onBoard(row + dir, col)) {
+            return targets;
+        }
+        long single = Bitboards.bit(Bitboards.square(row + dir, col));
+        if ((single & occupied) == 0) {
+            targets |= single;
+            int startRow = color == ChessGame.TeamColor.WHITE ? 2 : 7;
+            if (row == startRow) {
+                long twoSquares = Bitboards.bit(Bitboards.square(row + dir + dir, col));
+                if ((twoSquares & occupied) == 0) {
+                    targets |= twoSquares;
+                }
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * @return our pieces that stand alone between the king and an enemy slider
+     */
+    private static long pinned(ChessBoard board, ChessGame.TeamColor color, int king) {
+        if (king < 0) {
+            return 0;
+        }
+        ChessGame.TeamColor enemy = opponent(color);
+        long occupied = board.occupied();
+        long queens = board.pieces(enemy, ChessPiece.PieceType.QUEEN);
+        long rookLike = board.pieces(enemy, ChessPiece.PieceType.ROOK) | queens;
+        long bishopLike = board.pieces(enemy, ChessPiece.PieceType.BISHOP) | queens;
+        long snipers = (CalculatePieceMoves.rookAttacks(king, 0) & rookLike)
+                | (CalculatePieceMoves.bishopAttacks(king, 0) & bishopLike);
+        long own = board.teamPieces(color);
+        long pinned = 0;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = BETWEEN[king][sniper] & occupied;
+            if (Long.bitCount(blockers) == 1 && (blockers & own) != 0) {
+                pinned |= blockers;
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * @return the squares a non-king move must land on: everything when not in check,
+     * the checker and the squares between it and the king in single check, none in double check
+     */
+    private static long checkMask(ChessBoard board, ChessGame.TeamColor color, int king) {
+        if (king < 0) {
+            return -1L;
+        }
+        long checkers = CalculatePieceMoves.attackersTo(board, king, opponent(color), board.occupied());
+        if (checkers == 0) {
+            return -1L;
+        }
+        if (Long.bitCount(checkers) == 1) {
+            return BETWEEN[king][Long.numberOfTrailingZeros(checkers)] | checkers;
+        }
+        return 0;
+    }
+
+    private static long ray(int square, int drow, int dcol) {
+        long ray = 0;
+        int row = Bitboards.row(square) + drow;
+        int col = Bitboards.col(square) + dcol;
+        while (Bitboards.onBoard(row, col)) {
+            ray |= Bitboards.bit(Bitboards.square(row, col));
+            row += drow;
+            col += dcol;
+        }
+        return ray;
+    }
+
+    static ChessGame.TeamColor opponent(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+}
@@ -0,0 +1,152 @@
+package chess;
+
+/**
+ * Table-driven rook and bishop attacks using magic bitboards.
+ * <p>
+ * For each square the pieces that can block a slider (its relevant occupancy) are
+ * hashed with a multiply-and-shift into a table holding the precomputed attack set,
+ * so an attack query costs a mask, a multiply and a lookup regardless of how far
+ * the rays reach. The magic multipliers are searched for at class load with a
+ * fixed-seed generator, so the tables come out the same on every start.
+ */
+final class MagicBitboards {
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, -1}, {-1, -1}, {1, 1}, {-1, 1}};
+
+    // Per-row seeds for the magic search; these values are known to keep the search short
+    private static final long[] ROW_SEEDS = {728, 10316, 55013, 32803, 12281, 15100, 16645, 255};
+
+    private static final Table ROOKS = new Table(ROOK_DIRECTIONS);
+    private static final Table BISHOPS = new Table(BISHOP_DIRECTIONS);
+
+    private MagicBitboards() {
+    }
+
+    static long rookAttacks(int square, long occupied) {
+        return ROOKS.attacks(square, occupied);
+    }
+
+    static long bishopAttacks(int square, long occupied) {
+        return BISHOPS.attacks(square, occupied);
+    }
+
+    /**
+     * Magic numbers and attack tables for one kind of slider.
+     */
+    private static final class Table {
+
+        private final long[] masks = new long[64];
+        private final long[] magics = new long[64];
+        private final int[] shifts = new int[64];
+        private final long[][] attacks = new long[64][];
+
+        private long seed;
+
+        Table(int[][] directions) {
+            for (int square = 0; square < 64; square++) {
+                initSquare(square, directions);
+            }
+        }
+
+        long attacks(int square, long occupied) {
+            return attacks[square][(int) (((occupied & masks[square]) * magics[square]) >>> shifts[square])];
+        }
+
+        private void initSquare(int square, int[][] directions) {
+            long mask = relevantOccupancy(square, directions);
+            int bits = Long.bitCount(mask);
+            int size = 1 << bits;
+
+            // every blocker arrangement on the mask, with the attack set it produces
+            long[] occupancies = new long[size];
+            long[] references = new long[size];
+            long subset = 0;
+            for (int i = 0; i < size; i++) {
+                occupancies[i] = subset;
+                references[i] = slidingAttacks(square, subset, directions);
+                subset = (subset - mask) & mask;
+            }
+
+            seed = ROW_SEEDS[square >>> 3];
+            long[] table = new long[size];
+            int[] epoch = new int[size];
+            int attempt = 0;
+            while (true) {
+                long magic = sparseRandom();
+                if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+                    continue;
+                }
+                attempt++;
+                boolean collision = false;
+                for (int i = 0; i < size && !collision; i++) {
+                    int index = (int) ((occupancies[i] * magic) >>> (64 - bits));
+                    if (epoch[index] != attempt) {
+                        epoch[index] = attempt;
+                        table[index] = references[i];
+                    } else if (table[index] != references[i]) {
+                        collision = true;
+                    }
+                }
+                if (!collision) {
+                    masks[square] = mask;
+                    magics[square] = magic;
+                    shifts[square] = 64 - bits;
+                    attacks[square] = table;
+                    return;
+                }
+            }
+        }
+
+        private long sparseRandom() {
+            return nextRandom() & nextRandom() & nextRandom();
+        }
+
+        private long nextRandom() {
+            // xorshift64*
+            seed ^= seed >>> 12;
+            seed ^= seed << 25;
+            seed ^= seed >>> 27;
+            return seed * 0x2545F4914F6CDD1DL;
+        }
+    }
+
+    /**
+     * The squares whose occupancy can change a slider's attacks: every ray square
+     * except the last one on the edge, since a blocker there changes nothing.
+     */
+    private static long relevantOccupancy(int square, int[][] directions) {
+        long mask = 0;
+        for (int[] dir : directions) {
+            int row = Bitboards.row(square) + dir[0];
+            int col = Bitboards.col(square) + dir[1];
+            while (Bitboards.onBoard(row + dir[0], col + dir[1])) {
+                mask |= Bitboards.bit(Bitboards.square(row, col));
+                row += dir[0];
+                col += dir[1];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Reference ray walk, used only to fill the tables.
+     */
+    private static long slidingAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0;
+        for (int[] dir : directions) {
+            int row = Bitboards.row(square) + dir[0];
+            int col = Bitboards.col(square) + dir[1];
+            while (Bitboards.onBoard(row, col)) {
+                long bit = Bitboards.bit(Bitboards.square(row, col));
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                row += dir[0];
+                col += dir[1];
+            }
+        }
+        return attacks;
+    }
+}
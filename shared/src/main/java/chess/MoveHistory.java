@@ -0,0 +1,127 @@
+package chess;
+
+import com.google.gson.annotations.JsonAdapter;
+
+import java.util.Arrays;
+
+/**
+ * The moves played in a game, one int per ply, with what is needed to take each back.
+ * <pre>
+ * bits  0-15  the {@link PackedMove}
+ * bits 16-19  captured piece: 0 for none, otherwise its board piece index + 1
+ * </pre>
+ * The history also remembers the position it started from (as FEN), so any earlier
+ * position can be rebuilt by replaying forward or unwinding back. In JSON it is a
+ * single string, the start FEN and then four characters per ply, so a 100-move game
+ * takes under a kilobyte.
+ */
+@JsonAdapter(MoveHistoryAdapter.class)
+public final class MoveHistory {
+
+    private static final int MOVE_MASK = 0xFFFF;
+    private static final int CAPTURE_SHIFT = 16;
+    private static final ChessPiece[] PIECES = new ChessPiece[Bitboards.TEAMS * Bitboards.PIECE_TYPES];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                PIECES[Bitboards.pieceIndex(color, type)] = ChessPiece.of(color, type);
+            }
+        }
+    }
+
+    private final String startFen;
+    private int[] plies;
+    private int size;
+
+    MoveHistory(String startFen) {
+        this(startFen, new int[16], 0);
+    }
+
+    MoveHistory(String startFen, int[] plies, int size) {
+        this.startFen = startFen;
+        this.plies = plies;
+        this.size = size;
+    }
+
+    void add(int move, ChessPiece captured) {
+        if (size == plies.length) {
+            plies = Arrays.copyOf(plies, size * 2);
+        }
+        int capturedCode = captured == null ? 0
+                : Bitboards.pieceIndex(captured.getTeamColor(), captured.getPieceType()) + 1;
+        plies[size++] = (move & MOVE_MASK) | (capturedCode << CAPTURE_SHIFT);
+    }
+
+    MoveHistory copy() {
+        return copy(size);
+    }
+
+    /**
+     * @return a copy holding only the first {@code plies} plies
+     */
+    MoveHistory copy(int plies) {
+        return new MoveHistory(startFen, Arrays.copyOf(this.plies, Math.max(plies, 1)), plies);
+    }
+
+    /**
+     * @return the side to move after {@code ply} plies
+     */
+    ChessGame.TeamColor turnAfter(int ply) {
+        ChessGame.TeamColor first = "b".equals(startFen.split(" ")[1])
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        return ply % 2 == 0 ? first : LegalMoveGenerator.opponent(first);
+    }
+
+    /**
+     * @return the position the history starts from, as FEN
+     */
+    public String getStartFen() {
+        return startFen;
+    }
+
+    /**
+     * @return the number of plies (half-moves) recorded
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the move played at {@code ply}, counting from 0
+     */
+    public ChessMove getMove(int ply) {
+        return PackedMove.toChessMove(packedMove(ply));
+    }
+
+    int packedMove(int ply) {
+        checkPly(ply, size - 1);
+        return plies[ply] & MOVE_MASK;
+    }
+
+    ChessPiece captured(int ply) {
+        checkPly(ply, size - 1);
+        int code = plies[ply] >>> CAPTURE_SHIFT;
+        return code == 0 ? null : PIECES[code - 1];
+    }
+
+    /**
+     * @return true if this history is {@code other} followed by zero or more further plies
+     */
+    boolean extendsHistory(MoveHistory other) {
+        if (other.size > size || !other.startFen.equals(startFen)) {
+            return false;
+        }
+        return Arrays.equals(plies, 0, other.size, other.plies, 0, other.size);
+    }
+
+    int rawPly(int ply) {
+        return plies[ply];
+    }
+
+    void checkPly(int ply, int max) {
+        if (ply < 0 || ply > max) {
+            throw new IndexOutOfBoundsException("Ply " + ply + " out of range 0.." + max);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package chess;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Gson mapping for {@link MoveHistory} as one string: the start FEN, a ':' and then
+ * each ply's 20 bits of move and capture as four URL-safe base64 characters.
+ */
+class MoveHistoryAdapter extends TypeAdapter<MoveHistory> {
+
+    private static final char SEPARATOR = ':';
+    private static final String DIGITS =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+    private static final int CHARS_PER_PLY = 4;
+
+    @Override
+    public void write(JsonWriter out, MoveHistory history) throws IOException {
+        if (history == null) {
+            out.nullValue();
+            return;
+        }
+        StringBuilder s = new StringBuilder(history.getStartFen().length() + 1 + history.size() * CHARS_PER_PLY);
+        s.append(history.getStartFen()).append(SEPARATOR);
+        for (int ply = 0; ply < history.size(); ply++) {
+            int value = history.rawPly(ply);
+            for (int shift = 18; shift >= 0; shift -= 6) {
+                s.append(DIGITS.charAt((value >>> shift) & 0x3F));
+            }
+        }
+        out.value(s.toString());
+    }
+
+    @Override
+    public MoveHistory read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String s = in.nextString();
+        int split = s.lastIndexOf(SEPARATOR);
+        if (split < 0 || (s.length() - split - 1) % CHARS_PER_PLY != 0) {
+            throw new JsonParseException("Malformed move history: " + s);
+        }
+        int size = (s.length() - split - 1) / CHARS_PER_PLY;
+        int[] plies = new int[Math.max(size, 16)];
+        for (int ply = 0; ply < size; ply++) {
+            int value = 0;
+            for (int i = 0; i < CHARS_PER_PLY; i++) {
+                int digit = DIGITS.indexOf(s.charAt(split + 1 + ply * CHARS_PER_PLY + i));
+                if (digit < 0) {
+                    throw new JsonParseException("Malformed move history: " + s);
+                }
+                value = (value << 6) | digit;
+            }
+            plies[ply] = value;
+        }
+        return new MoveHistory(s.substring(0, split), plies, size);
+    }
+}
@@ -0,0 +1,80 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A reusable, int-backed list of {@link PackedMove}s.
+ * <p>
+ * The generator appends into a caller-owned list, so code that generates many times
+ * (search, perft, bulk validation) can {@link #clear()} and refill the same buffer
+ * without allocating.
+ */
+public final class MoveList {
+
+    // No legal chess position has more than 218 moves
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int capacity) {
+        this.moves = new int[Math.max(capacity, 1)];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return moves[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return true if the list holds a move with these squares and promotion (ignoring flags)
+     */
+    public boolean contains(int from, int to, ChessPiece.PieceType promotion) {
+        for (int i = 0; i < size; i++) {
+            int move = moves[i];
+            if (PackedMove.from(move) == from && PackedMove.to(move) == to
+                    && PackedMove.promotion(move) == promotion) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Converts the list to API moves; this is where {@link ChessMove} objects get created.
+     */
+    public List<ChessMove> toChessMoves() {
+        List<ChessMove> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(PackedMove.toChessMove(moves[i]));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,78 @@
+package chess;
+
+/**
+ * Encodes a move in the low 16 bits of an int so the engine can generate, store and
+ * replay moves without allocating {@link ChessMove} objects.
+ * <pre>
+ * bits  0-5   from square (see {@link #square(ChessPosition)})
+ * bits  6-11  to square
+ * bits 12-14  promotion piece: 0 for none, otherwise PieceType ordinal + 1
+ * bit  15     capture flag
+ * </pre>
+ */
+public final class PackedMove {
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int TO_SHIFT = 6;
+    private static final int PROMOTION_SHIFT = 12;
+    private static final int PROMOTION_MASK = 0x7;
+    private static final int CAPTURE_FLAG = 1 << 15;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private PackedMove() {
+    }
+
+    public static int encode(int from, int to, ChessPiece.PieceType promotion, boolean capture) {
+        int move = from | (to << TO_SHIFT);
+        if (promotion != null) {
+            move |= (promotion.ordinal() + 1) << PROMOTION_SHIFT;
+        }
+        if (capture) {
+            move |= CAPTURE_FLAG;
+        }
+        return move;
+    }
+
+    /**
+     * Packs an API move, taking the capture flag from the piece on its end square.
+     */
+    public static int encode(ChessBoard board, ChessMove move) {
+        int to = square(move.getEndPosition());
+        return encode(square(move.getStartPosition()), to, move.getPromotionPiece(), board.pieceAt(to) != null);
+    }
+
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int to(int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    /**
+     * @return the promotion piece type, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int code = (move >>> PROMOTION_SHIFT) & PROMOTION_MASK;
+        return code == 0 ? null : TYPES[code - 1];
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE_FLAG) != 0;
+    }
+
+    /**
+     * Builds the API object for a packed move, using the shared position instances.
+     */
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(Bitboards.position(from(move)), Bitboards.position(to(move)), promotion(move));
+    }
+
+    /**
+     * @return the 0-63 index of a position: (row - 1) * 8 + (column - 1)
+     */
+    public static int square(ChessPosition position) {
+        return Bitboards.square(position);
+    }
+}
@@ -0,0 +1,200 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth ("perft").
+ * <p>
+ * Perft counts for standard positions are published, so they catch any move
+ * generator that produces a wrong move; they also make a clean throughput
+ * measure since nothing but generation and make/unmake is timed. The search
+ * walks the board with {@link ChessBoard#makeMove(int)}/{@link ChessBoard#unmakeMove}
+ * and one reusable {@link MoveList} per ply, so it does not allocate per node.
+ * <p>
+ * Run from the command line as
+ * <pre>
+ * java chess.Perft [fen|startpos] depth [threads]
+ * </pre>
+ * which prints the divide (nodes under each root move), the total, nodes per second,
+ * and then the time for the same search on 1, 2, 4, ... up to {@code threads} threads.
+ */
+public final class Perft {
+
+    private Perft() {
+    }
+
+    /**
+     * @return the number of leaf nodes at {@code depth} plies from the game's position
+     */
+    public static long perft(ChessGame game, int depth) {
+        if (depth <= 0) {
+            return 1;
+        }
+        return count(game.getBoard().copy(), game.getTeamTurn(), depth, buffers(depth));
+    }
+
+    /**
+     * Perft split by root move, with each root move searched as its own task on {@code pool}.
+     * Each task walks a private copy of the board.
+     *
+     * @param depth at least 1, since at depth 0 there are no root moves to split by
+     * @return nodes under each root move, in generation order
+     * @throws IllegalArgumentException if {@code depth} is less than 1
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth, ForkJoinPool pool) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("divide needs a depth of at least 1");
+        }
+        ChessBoard board = game.getBoard();
+        ChessGame.TeamColor color = game.getTeamTurn();
+        MoveList roots = new MoveList();
+        LegalMoveGenerator.generate(board, color, roots);
+
+        List<RootTask> tasks = new ArrayList<>(roots.size());
+        for (int i = 0; i < roots.size(); i++) {
+            tasks.add(new RootTask(board, color, roots.get(i), depth - 1));
+        }
+        return pool.submit(() -> {
+            ForkJoinTask.invokeAll(tasks);
+            Map<ChessMove, Long> result = new LinkedHashMap<>();
+            for (RootTask task : tasks) {
+                result.put(PackedMove.toChessMove(task.move), task.join());
+            }
+            return result;
+        }).join();
+    }
+
+    private static final class RootTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        // tasks never leave the pool, so the board need not be serializable
+        private final transient ChessBoard board;
+        private final ChessGame.TeamColor color;
+        private final int move;
+        private final int depth;
+
+        RootTask(ChessBoard board, ChessGame.TeamColor color, int move, int depth) {
+            this.board = board;
+            this.color = color;
+            this.move = move;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            ChessBoard b = board.copy();
+            b.makeMove(move);
+            if (depth <= 0) {
+                return 1L;
+            }
+            return count(b, LegalMoveGenerator.opponent(color), depth, buffers(depth));
+        }
+    }
+
+    private static long count(ChessBoard board, ChessGame.TeamColor color, int depth, MoveList[] buffers) {
+        MoveList moves = buffers[depth];
+        moves.clear();
+        LegalMoveGenerator.generate(board, color, moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        ChessGame.TeamColor next = LegalMoveGenerator.opponent(color);
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            ChessPiece captured = board.makeMove(move);
+            nodes += count(board, next, depth - 1, buffers);
+            board.unmakeMove(move, captured);
+        }
+        return nodes;
+    }
+
+    private static MoveList[] buffers(int depth) {
+        MoveList[] buffers = new MoveList[depth + 1];
+        for (int i = 1; i <= depth; i++) {
+            buffers[i] = new MoveList();
+        }
+        return buffers;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: java chess.Perft <fen|startpos> <depth> [threads]");
+            System.exit(1);
+        }
+        String fen = "startpos".equals(args[0]) ? Fen.START_POSITION : args[0];
+        int depth = Integer.parseInt(args[1]);
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        if (depth < 1 || maxThreads < 1) {
+            System.err.println("Depth and threads must be at least 1");
+            System.exit(1);
+        }
+
+        ChessGame game = Fen.parse(fen);
+        System.out.println("Position: " + Fen.format(game));
+        System.out.println("Depth:    " + depth);
+        System.out.println();
+
+        long start = System.nanoTime();
+        Map<ChessMove, Long> divide;
+        try (ForkJoinPool pool = new ForkJoinPool(maxThreads)) {
+            divide = divide(game, depth, pool);
+        }
+        long elapsed = System.nanoTime() - start;
+        long total = 0;
+        for (Map.Entry<ChessMove, Long> entry : divide.entrySet()) {
+            System.out.println(notation(entry.getKey()) + ": " + entry.getValue());
+            total += entry.getValue();
+        }
+        System.out.println();
+        System.out.println("Nodes: " + total);
+        System.out.printf("Time:  %.3f s (%,d nodes/s on %d threads)%n",
+                elapsed / 1e9, nodesPerSecond(total, elapsed), maxThreads);
+
+        System.out.println();
+        System.out.println("Threads     Time (s)        Nodes/s   Speedup");
+        double baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            long t0 = System.nanoTime();
+            try (ForkJoinPool pool = new ForkJoinPool(threads)) {
+                divide(game, depth, pool);
+            }
+            long t = System.nanoTime() - t0;
+            if (threads == 1) {
+                baseline = t;
+            }
+            System.out.printf("%7d %12.3f %,14d %8.2fx%n", threads, t / 1e9, nodesPerSecond(total, t), baseline / t);
+        }
+    }
+
+    /**
+     * Coordinate notation (e2e4, a7a8q), so divides can be compared against other engines.
+     */
+    private static String notation(ChessMove move) {
+        StringBuilder s = new StringBuilder(5);
+        for (ChessPosition pos : new ChessPosition[]{move.getStartPosition(), move.getEndPosition()}) {
+            s.append((char) ('a' + pos.getColumn() - 1)).append(pos.getRow());
+        }
+        if (move.getPromotionPiece() != null) {
+            s.append(Fen.symbol(ChessPiece.of(ChessGame.TeamColor.BLACK, move.getPromotionPiece())));
+        }
+        return s.toString();
+    }
+
+    private static int nextThreadCount(int threads, int maxThreads) {
+        if (threads == maxThreads) {
+            return threads + 1;
+        }
+        return Math.min(threads * 2, maxThreads);
+    }
+
+    private static long nodesPerSecond(long nodes, long nanos) {
+        return nanos == 0 ? 0 : (long) (nodes * 1e9 / nanos);
+    }
+}
@@ -0,0 +1,45 @@
+package chess;
+
+/**
+ * Random keys for Zobrist hashing.
+ * <p>
+ * A position's key is the XOR of one key per (piece, square) on the board plus a key
+ * for the side to move, so moving a piece updates the key with two or three XORs
+ * instead of rehashing the board. The keys come from a
+ * fixed seed, so the same position hashes the same way in every process.
+ */
+final class Zobrist {
+
+    static final long[][] PIECE_SQUARE = new long[Bitboards.TEAMS * Bitboards.PIECE_TYPES][64];
+    static final long BLACK_TO_MOVE;
+
+    static {
+        long seed = 0x5EED_C0DE_CAFE_F00DL;
+        for (long[] keys : PIECE_SQUARE) {
+            for (int square = 0; square < 64; square++) {
+                seed = next(seed);
+                keys[square] = mix(seed);
+            }
+        }
+        seed = next(seed);
+        BLACK_TO_MOVE = mix(seed);
+    }
+
+    private Zobrist() {
+    }
+
+    static long pieceKey(ChessPiece piece, int square) {
+        return PIECE_SQUARE[Bitboards.pieceIndex(piece.getTeamColor(), piece.getPieceType())][square];
+    }
+
+    // splitmix64
+    private static long next(long seed) {
+        return seed + 0x9E3779B97F4A7C15L;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,12 @@
+package model;
+
+import chess.ChessGame;
+
+/** A game as it stood after a given ply, for reviewing earlier positions */
+public record GamePosition(
+        int gameID,
+        int ply,
+        int plies,
+        ChessGame game
+) {
+}
@@ -16,11 +16,28 @@ public class UserGameCommand {
 
     private final Integer gameID;
 
+    // CONNECT only: ask for the side to move's legal moves on every LOAD_GAME (null means no)
+    private final Boolean includeLegalMoves;
+
+    // CONNECT only: the ply a reconnecting client already has, so only later moves are sent
+    private final Integer knownPly;
+
 
     public UserGameCommand(CommandType commandType, String authToken, Integer gameID) {
+        this(commandType, authToken, gameID, null);
+    }
+
+    public UserGameCommand(CommandType commandType, String authToken, Integer gameID, Boolean includeLegalMoves) {
+        this(commandType, authToken, gameID, includeLegalMoves, null);
+    }
+
+    public UserGameCommand(CommandType commandType, String authToken, Integer gameID,
+                           Boolean includeLegalMoves, Integer knownPly) {
         this.commandType = commandType;
         this.authToken = authToken;
         this.gameID = gameID;
+        this.includeLegalMoves = includeLegalMoves;
+        this.knownPly = knownPly;
     }
 
 
@@ -43,6 +60,14 @@ public class UserGameCommand {
         return gameID;
     }
 
+    public boolean includeLegalMoves() {
+        return Boolean.TRUE.equals(includeLegalMoves);
+    }
+
+    public Integer getKnownPly() {
+        return knownPly;
+    }
+
 
     @Override
     public boolean equals(Object o) {
@@ -1,16 +1,143 @@
 package websocket.messages;
 
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
 import model.GameData;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
 public class LoadGameMessage extends ServerMessage {
+    // Indexed by PieceType ordinal
+    private static final String PROMOTION_LETTERS = "kqbnrp";
+
     private final GameData game;
 
+    // Side to move's legal moves as concatenated from-to squares ("e2e4g1f3..."), only for
+    // sessions that asked for them at CONNECT. Promotions share one from-to pair.
+    private final String legalMoves;
+
+    // Catch-up form for a reconnecting client: no game, just the moves played after
+    // fromPly in coordinate notation ("e2e4 e7e5 a7a8q")
+    private final Integer fromPly;
+    private final String moves;
+
     public LoadGameMessage(GameData game) {
+        this(game, null);
+    }
+
+    public LoadGameMessage(GameData game, String legalMoves) {
+        this(game, legalMoves, null, null);
+    }
+
+    private LoadGameMessage(GameData game, String legalMoves, Integer fromPly, String moves) {
         super(ServerMessageType.LOAD_GAME);
         this.game = game;
+        this.legalMoves = legalMoves;
+        this.fromPly = fromPly;
+        this.moves = moves;
+    }
+
+    /**
+     * A LOAD_GAME that brings a client holding the position after {@code fromPly} up to date
+     * without resending the whole game.
+     */
+    public static LoadGameMessage catchUp(int fromPly, List<ChessMove> moves, String legalMoves) {
+        StringBuilder encoded = new StringBuilder(moves.size() * 5);
+        for (ChessMove move : moves) {
+            if (!encoded.isEmpty()) {
+                encoded.append(' ');
+            }
+            encoded.append(square(move.getStartPosition())).append(square(move.getEndPosition()));
+            if (move.getPromotionPiece() != null) {
+                encoded.append(PROMOTION_LETTERS.charAt(move.getPromotionPiece().ordinal()));
+            }
+        }
+        return new LoadGameMessage(null, legalMoves, fromPly, encoded.toString());
     }
 
     public GameData getGame() {
         return game;
     }
+
+    /**
+     * @return the ply the catch-up moves start after, or null if this message carries the whole game
+     */
+    public Integer getFromPly() {
+        return fromPly;
+    }
+
+    /**
+     * @return the catch-up moves, or null if this message carries the whole game
+     * @throws IllegalArgumentException if a move is malformed
+     */
+    public List<ChessMove> getMoves() {
+        if (moves == null) {
+            return null;
+        }
+        List<ChessMove> result = new ArrayList<>();
+        for (String move : moves.split(" ")) {
+            if (move.isEmpty()) {
+                continue;
+            }
+            if (move.length() != 4 && move.length() != 5) {
+                throw new IllegalArgumentException("Malformed move: " + move);
+            }
+            ChessPiece.PieceType promotion = move.length() == 5 ? promotion(move.charAt(4)) : null;
+            result.add(new ChessMove(square(move, 0), square(move, 2), promotion));
+        }
+        return result;
+    }
+
+    /**
+     * @return the legal moves sent with this message, without promotion pieces,
+     * or null if they were not requested
+     * @throws IllegalArgumentException if a square is malformed
+     */
+    public List<ChessMove> getLegalMoves() {
+        if (legalMoves == null) {
+            return null;
+        }
+        List<ChessMove> moves = new ArrayList<>(legalMoves.length() / 4);
+        for (int i = 0; i + 4 <= legalMoves.length(); i += 4) {
+            moves.add(new ChessMove(square(legalMoves, i), square(legalMoves, i + 2), null));
+        }
+        return moves;
+    }
+
+    /**
+     * Encodes moves in the {@code legalMoves} format.
+     */
+    public static String encodeLegalMoves(Collection<ChessMove> moves) {
+        Set<String> pairs = new LinkedHashSet<>();
+        for (ChessMove move : moves) {
+            pairs.add(square(move.getStartPosition()) + square(move.getEndPosition()));
+        }
+        return String.join("", pairs);
+    }
+
+    private static String square(ChessPosition position) {
+        return "" + (char) ('a' + position.getColumn() - 1) + position.getRow();
+    }
+
+    private static ChessPosition square(String encoded, int index) {
+        int col = encoded.charAt(index) - 'a' + 1;
+        int row = encoded.charAt(index + 1) - '0';
+        if (col < 1 || col > 8 || row < 1 || row > 8) {
+            throw new IllegalArgumentException("Malformed square: " + encoded.substring(index, index + 2));
+        }
+        return ChessPosition.of(row, col);
+    }
+
+    private static ChessPiece.PieceType promotion(char letter) {
+        int index = PROMOTION_LETTERS.indexOf(letter);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown promotion piece: " + letter);
+        }
+        return ChessPiece.PieceType.values()[index];
+    }
 }
@@ -0,0 +1,87 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class GameStatusCacheTests {
+
+    @Test
+    @DisplayName("Start Position Status")
+    public void startPosition() {
+        GameStatus status = new ChessGame().getStatus();
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, status.team());
+        Assertions.assertEquals(GameStatus.State.ONGOING, status.state());
+        Assertions.assertEquals(20, status.legalMoveCount());
+    }
+
+    @Test
+    @DisplayName("Cached Status Is Recomputed After Editing The Board")
+    public void editThroughGetBoard() {
+        ChessGame game = new ChessGame();
+        GameStatus before = game.getStatus();
+        Assertions.assertSame(before, game.getStatus(), "unchanged position should reuse the cached status");
+
+        // same board object, different position: open the e-file and check the king with a rook
+        ChessBoard board = game.getBoard();
+        board.addPiece(new ChessPosition(2, 5), null);
+        board.addPiece(new ChessPosition(4, 5),
+                new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+
+        GameStatus after = game.getStatus();
+        Assertions.assertNotSame(before, after);
+        Assertions.assertEquals(GameStatus.State.CHECK, after.state());
+        Assertions.assertTrue(game.isInCheck(ChessGame.TeamColor.WHITE));
+        Assertions.assertFalse(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Cached Status Is Per Team")
+    public void statusPerTeam() {
+        ChessGame game = new ChessGame();
+        GameStatus white = game.getStatus(ChessGame.TeamColor.WHITE);
+        GameStatus black = game.getStatus(ChessGame.TeamColor.BLACK);
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, white.team());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, black.team());
+    }
+
+    @Test
+    @DisplayName("Mate And Stalemate Without A Cached Status")
+    public void mateAndStalemate() {
+        // fool's mate: the early exit finds no legal move for white
+        ChessGame mate = Fen.parse("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w - - 0 1");
+        Assertions.assertTrue(mate.isInCheckmate(ChessGame.TeamColor.WHITE));
+        Assertions.assertFalse(mate.isInStalemate(ChessGame.TeamColor.WHITE));
+        Assertions.assertEquals(GameStatus.State.CHECKMATE, mate.getStatus().state());
+
+        ChessGame stalemate = Fen.parse("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        Assertions.assertTrue(stalemate.isInStalemate(ChessGame.TeamColor.BLACK));
+        Assertions.assertFalse(stalemate.isInCheckmate(ChessGame.TeamColor.BLACK));
+        Assertions.assertEquals(0, stalemate.getStatus().legalMoveCount());
+    }
+
+    @Test
+    @DisplayName("Moves Are Not Counted After An Ordinary Move")
+    public void makeMoveDoesNotCount() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+
+        GameStatus status = game.getStatus();
+        Assertions.assertEquals(GameStatus.State.ONGOING, status.state());
+        Assertions.assertFalse(status.legalMovesCounted(), "makeMove should only look for the first legal move");
+
+        // counted on demand, for the position the status was taken in
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        Assertions.assertEquals(20, status.legalMoveCount());
+        Assertions.assertTrue(status.legalMovesCounted());
+    }
+
+    @Test
+    @DisplayName("A Mating Move Ends The Game")
+    public void makeMoveFindsMate() throws InvalidMoveException {
+        ChessGame game = Fen.parse("rnbqkbnr/pppp1ppp/8/4p3/6P1/5P2/PPPPP2P/RNBQKBNR b - - 0 1");
+        game.makeMove(new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null));
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getWinner());
+        Assertions.assertEquals(0, game.getStatus(ChessGame.TeamColor.WHITE).legalMoveCount());
+    }
+}
@@ -0,0 +1,73 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class GameTimelineTests {
+
+    @Test
+    @DisplayName("Position At Every Ply")
+    public void positionAtEveryPly() throws InvalidMoveException {
+        List<ChessGame> positions = new ArrayList<>();
+        ChessGame game = new ChessGame();
+        positions.add(game.copy());
+        Random random = new Random(9);
+        GameTimeline timeline = new GameTimeline(game, 8);
+
+        for (int ply = 0; ply < 120 && !game.isGameOver(); ply++) {
+            List<ChessMove> moves = new ArrayList<>(game.legalMoves(game.getTeamTurn()));
+            if (moves.isEmpty()) {
+                break;
+            }
+            game.makeMove(moves.get(random.nextInt(moves.size())));
+            positions.add(game.copy());
+            if (ply % 5 == 0) {
+                Assertions.assertTrue(timeline.update(game));
+            }
+        }
+        Assertions.assertTrue(timeline.update(game));
+        Assertions.assertEquals(positions.size() - 1, timeline.size());
+
+        for (int ply = 0; ply < positions.size() - 1; ply++) {
+            ChessGame expected = positions.get(ply);
+            Assertions.assertEquals(expected, timeline.positionAt(ply), "ply " + ply);
+            Assertions.assertEquals(expected, new GameTimeline(game, 5).positionAt(ply), "ply " + ply);
+        }
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> timeline.positionAt(positions.size()));
+    }
+
+    @Test
+    @DisplayName("Moves Since A Ply")
+    public void movesSince() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        ChessMove e4 = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        ChessMove e5 = new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null);
+        game.makeMove(e4);
+        game.makeMove(e5);
+
+        GameTimeline timeline = new GameTimeline(game, 16);
+        Assertions.assertEquals(List.of(e4, e5), timeline.movesSince(0));
+        Assertions.assertEquals(List.of(e5), timeline.movesSince(1));
+        Assertions.assertEquals(List.of(), timeline.movesSince(2));
+    }
+
+    @Test
+    @DisplayName("Rejects A Different Game")
+    public void rejectsDifferentHistory() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        GameTimeline timeline = new GameTimeline(game, 16);
+
+        ChessGame other = new ChessGame();
+        other.makeMove(new ChessMove(new ChessPosition(2, 4), new ChessPosition(4, 4), null));
+        other.makeMove(new ChessMove(new ChessPosition(7, 4), new ChessPosition(5, 4), null));
+
+        Assertions.assertFalse(timeline.update(other));
+        Assertions.assertEquals(1, timeline.size());
+    }
+}
@@ -0,0 +1,77 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.HashSet;
+
+public class LegalityTests {
+
+    // White pawn on a7 ready to promote; white bishop on e2 pinned by the rook on e8
+    private static final String POSITION = "4r2k/P7/8/8/8/8/4B3/4K3 w - - 0 1";
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol, ChessPiece.PieceType promotion) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), promotion);
+    }
+
+    @Test
+    @DisplayName("Promotion Needs A Piece")
+    public void promotionWithoutPiece() {
+        ChessGame game = Fen.parse(POSITION);
+        Assertions.assertFalse(game.isLegal(move(7, 1, 8, 1, null)));
+        Assertions.assertTrue(game.isLegal(move(7, 1, 8, 1, ChessPiece.PieceType.QUEEN)));
+        Assertions.assertTrue(game.isLegal(move(7, 1, 8, 1, ChessPiece.PieceType.KNIGHT)));
+    }
+
+    @Test
+    @DisplayName("Cannot Promote To King Or Pawn")
+    public void promotionToKingOrPawn() {
+        ChessGame game = Fen.parse(POSITION);
+        Assertions.assertFalse(game.isLegal(move(7, 1, 8, 1, ChessPiece.PieceType.KING)));
+        Assertions.assertFalse(game.isLegal(move(7, 1, 8, 1, ChessPiece.PieceType.PAWN)));
+    }
+
+    @Test
+    @DisplayName("Promotion Piece On An Ordinary Move")
+    public void promotionPieceWithoutPromotion() {
+        ChessGame game = new ChessGame();
+        Assertions.assertTrue(game.isLegal(move(2, 5, 4, 5, null)));
+        Assertions.assertFalse(game.isLegal(move(2, 5, 4, 5, ChessPiece.PieceType.QUEEN)));
+    }
+
+    @Test
+    @DisplayName("Pinned Piece Cannot Leave The Line")
+    public void pinnedPiece() {
+        ChessGame game = Fen.parse(POSITION);
+        Assertions.assertFalse(game.isLegal(move(2, 5, 3, 4, null)));
+        Assertions.assertFalse(game.isLegal(move(2, 5, 3, 6, null)));
+        // the king may still step aside
+        Assertions.assertTrue(game.isLegal(move(1, 5, 1, 4, null)));
+    }
+
+    @Test
+    @DisplayName("Off-Board Squares")
+    public void offBoard() {
+        ChessGame game = new ChessGame();
+        Assertions.assertFalse(game.isLegal(move(2, 5, 9, 5, null)));
+        Assertions.assertFalse(game.isLegal(move(0, 5, 3, 5, null)));
+        Assertions.assertFalse(game.isLegal(move(2, 9, 3, 9, null)));
+    }
+
+    @Test
+    @DisplayName("Agrees With Move Generation")
+    public void agreesWithGeneration() {
+        ChessGame game = Fen.parse(POSITION);
+        // isLegal judges the piece on the start square, whichever side it belongs to
+        Collection<ChessMove> legal = new HashSet<>(game.legalMoves(ChessGame.TeamColor.WHITE));
+        legal.addAll(game.legalMoves(ChessGame.TeamColor.BLACK));
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                ChessMove plain = new ChessMove(Bitboards.position(from), Bitboards.position(to), null);
+                Assertions.assertEquals(legal.contains(plain), game.isLegal(plain), plain.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class MoveHistoryTests {
+
+    @Test
+    @DisplayName("Records Every Move")
+    public void recordsMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        ChessMove e4 = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        ChessMove e5 = new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null);
+        game.makeMove(e4);
+        game.makeMove(e5);
+
+        MoveHistory history = game.getHistory();
+        Assertions.assertEquals(2, history.size());
+        Assertions.assertEquals(e4, history.getMove(0));
+        Assertions.assertEquals(e5, history.getMove(1));
+        Assertions.assertEquals(Fen.START_POSITION.split(" ")[0], history.getStartFen().split(" ")[0]);
+    }
+
+    @Test
+    @DisplayName("Replacing Board Or Turn Starts A New History")
+    public void replacingPositionResetsHistory() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+
+        ChessGame other = Fen.parse("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1");
+        game.setBoard(other.getBoard().copy());
+        Assertions.assertEquals(0, game.getHistory().size());
+        Assertions.assertEquals(Fen.format(game), game.getHistory().getStartFen());
+
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(3, 5), null));
+        Assertions.assertEquals(1, game.getHistory().size());
+        Assertions.assertEquals(other, game.replayTo(0));
+
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(0, game.getHistory().size());
+        Assertions.assertEquals(Fen.format(game), game.getHistory().getStartFen());
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getStatus().team());
+    }
+
+    @Test
+    @DisplayName("Replay To Every Ply")
+    public void replayToEveryPly() throws InvalidMoveException {
+        List<ChessGame> positions = new ArrayList<>();
+        ChessGame game = playRandomGame(new Random(3), 150, positions);
+
+        for (int ply = 0; ply < positions.size(); ply++) {
+            ChessGame replayed = game.replayTo(ply);
+            Assertions.assertEquals(positions.get(ply), replayed, "ply " + ply);
+            Assertions.assertEquals(ply, replayed.getHistory().size());
+        }
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> game.replayTo(positions.size() + 1));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> game.replayTo(-1));
+    }
+
+    @Test
+    @DisplayName("Compact JSON Round Trip")
+    public void jsonRoundTrip() throws InvalidMoveException {
+        List<ChessGame> positions = new ArrayList<>();
+        ChessGame game = playRandomGame(new Random(5), 200, positions);
+        Gson gson = new Gson();
+
+        String json = gson.toJson(game.getHistory());
+        Assertions.assertTrue(json.length() < 100 + 4 * game.getHistory().size(), json);
+
+        ChessGame restored = gson.fromJson(gson.toJson(game), ChessGame.class);
+        Assertions.assertEquals(game.getHistory().size(), restored.getHistory().size());
+        int middle = positions.size() / 2;
+        Assertions.assertEquals(positions.get(middle), restored.replayTo(middle));
+    }
+
+    /**
+     * Plays random legal moves, recording the game before each one and at the end.
+     */
+    private static ChessGame playRandomGame(Random random, int maxPlies, List<ChessGame> positions)
+            throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        positions.add(game.copy());
+        for (int ply = 0; ply < maxPlies && !game.isGameOver(); ply++) {
+            List<ChessMove> moves = new ArrayList<>(game.legalMoves(game.getTeamTurn()));
+            if (moves.isEmpty()) {
+                break;
+            }
+            game.makeMove(moves.get(random.nextInt(moves.size())));
+            positions.add(game.copy());
+        }
+        return game;
+    }
+}
@@ -0,0 +1,76 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Published perft counts (chessprogramming.org "Perft Results"). The engine does not
+ * implement castling or en passant, so only positions and depths where neither move
+ * can occur are used.
+ */
+public class PerftTests {
+
+    private static final String START = Fen.START_POSITION;
+    private static final String POSITION_3 = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    private static final String POSITION_6 =
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+
+    @ParameterizedTest(name = "{0} depth {1}")
+    @CsvSource(delimiter = ';', value = {
+            START + ";1;20",
+            START + ";2;400",
+            START + ";3;8902",
+            START + ";4;197281",
+            POSITION_3 + ";1;14",
+            POSITION_3 + ";2;191",
+            POSITION_6 + ";1;46",
+            POSITION_6 + ";2;2079",
+            POSITION_6 + ";3;89890",
+            POSITION_6 + ";4;3894594",
+    })
+    @DisplayName("Perft Node Counts")
+    public void perftCounts(String fen, int depth, long expected) {
+        Assertions.assertEquals(expected, Perft.perft(Fen.parse(fen), depth));
+    }
+
+    @ParameterizedTest(name = "{0} depth {1}")
+    @CsvSource(delimiter = ';', value = {
+            START + ";3;8902",
+            POSITION_6 + ";2;2079",
+    })
+    @DisplayName("Parallel Divide Matches Perft")
+    public void divideSumsToPerft(String fen, int depth, long expected) {
+        ChessGame game = Fen.parse(fen);
+        Map<ChessMove, Long> divide;
+        try (ForkJoinPool pool = new ForkJoinPool(4)) {
+            divide = Perft.divide(game, depth, pool);
+        }
+        Assertions.assertEquals(game.legalMoves(game.getTeamTurn()).size(), divide.size());
+        Assertions.assertEquals(expected, divide.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    @DisplayName("Divide Needs A Root Move")
+    public void divideRejectsDepthZero() {
+        ChessGame game = Fen.parse(START);
+        try (ForkJoinPool pool = new ForkJoinPool(1)) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> Perft.divide(game, 0, pool));
+        }
+        Assertions.assertEquals(1, Perft.perft(game, 0));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {START, POSITION_3, POSITION_6})
+    @DisplayName("FEN Round Trip")
+    public void fenRoundTrip(String fen) {
+        ChessGame game = Fen.parse(fen);
+        Assertions.assertEquals(game, Fen.parse(Fen.format(game)));
+        Assertions.assertEquals(fen.split(" ")[0], Fen.format(game).split(" ")[0]);
+    }
+}
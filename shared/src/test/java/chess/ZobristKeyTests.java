@@ -0,0 +1,101 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ZobristKeyTests {
+
+    // Captures and promotions for both sides: b7xa8, e4xd5, g7-g8 and g2xh1 among them
+    private static final String POSITION = "r3k2r/1P4P1/8/3p4/4P3/8/6p1/R3K2R w - - 0 1";
+
+    private static long recomputed(ChessBoard board) {
+        long key = 0;
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.pieceAt(square);
+            if (piece != null) {
+                key ^= Zobrist.pieceKey(piece, square);
+            }
+        }
+        return key;
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol, ChessPiece.PieceType promotion) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), promotion);
+    }
+
+    @Test
+    @DisplayName("Make And Unmake Keep The Key")
+    public void makeAndUnmake() {
+        ChessGame game = Fen.parse(POSITION);
+        ChessBoard board = game.getBoard();
+        long before = board.zobristKey();
+        Assertions.assertEquals(recomputed(board), before);
+
+        for (ChessGame.TeamColor team : ChessGame.TeamColor.values()) {
+            for (ChessMove legal : game.legalMoves(team)) {
+                int packed = PackedMove.encode(board, legal);
+                ChessPiece captured = board.makeMove(packed);
+                Assertions.assertEquals(recomputed(board), board.zobristKey(), legal.toString());
+                board.unmakeMove(packed, captured);
+                Assertions.assertEquals(before, board.zobristKey(), legal.toString());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Key Follows Captures And Promotions")
+    public void capturesAndPromotions() throws InvalidMoveException {
+        ChessGame game = Fen.parse(POSITION);
+        game.makeMove(move(4, 5, 5, 4, null));
+        Assertions.assertEquals(recomputed(game.getBoard()), game.getBoard().zobristKey());
+        game.makeMove(move(2, 7, 1, 8, ChessPiece.PieceType.KNIGHT));
+        Assertions.assertEquals(recomputed(game.getBoard()), game.getBoard().zobristKey());
+        game.makeMove(move(7, 2, 8, 1, ChessPiece.PieceType.QUEEN));
+        Assertions.assertEquals(recomputed(game.getBoard()), game.getBoard().zobristKey());
+    }
+
+    @Test
+    @DisplayName("Transpositions Share A Key")
+    public void transposition() throws InvalidMoveException {
+        ChessGame first = new ChessGame();
+        first.makeMove(move(1, 7, 3, 6, null));
+        first.makeMove(move(8, 7, 6, 6, null));
+        first.makeMove(move(1, 2, 3, 3, null));
+
+        ChessGame second = new ChessGame();
+        second.makeMove(move(1, 2, 3, 3, null));
+        second.makeMove(move(8, 7, 6, 6, null));
+        second.makeMove(move(1, 7, 3, 6, null));
+
+        Assertions.assertEquals(first.positionKey(), second.positionKey());
+        Assertions.assertEquals(recomputed(second.getBoard()), second.getBoard().zobristKey());
+        Assertions.assertNotEquals(new ChessGame().positionKey(), first.positionKey());
+    }
+
+    @Test
+    @DisplayName("Side To Move Is Part Of The Key")
+    public void sideToMove() {
+        ChessGame white = Fen.parse(POSITION);
+        ChessGame black = Fen.parse(POSITION.replace(" w ", " b "));
+        Assertions.assertEquals(white.getBoard().zobristKey(), black.getBoard().zobristKey());
+        Assertions.assertNotEquals(white.positionKey(), black.positionKey());
+    }
+
+    @Test
+    @DisplayName("Copies And JSON Keep The Key")
+    public void copyAndJson() throws InvalidMoveException {
+        ChessGame game = Fen.parse(POSITION);
+        game.makeMove(move(7, 2, 8, 1, ChessPiece.PieceType.QUEEN));
+
+        ChessGame copy = game.copy();
+        Assertions.assertEquals(game.positionKey(), copy.positionKey());
+        Assertions.assertEquals(recomputed(copy.getBoard()), copy.getBoard().zobristKey());
+
+        Gson gson = new Gson();
+        ChessGame restored = gson.fromJson(gson.toJson(game), ChessGame.class);
+        Assertions.assertEquals(game.positionKey(), restored.positionKey());
+        Assertions.assertEquals(recomputed(restored.getBoard()), restored.getBoard().zobristKey());
+    }
+}
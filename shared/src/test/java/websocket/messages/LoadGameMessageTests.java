@@ -0,0 +1,80 @@
+package websocket.messages;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Fen;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class LoadGameMessageTests {
+
+    private final Gson gson = new Gson();
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol, ChessPiece.PieceType promotion) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), promotion);
+    }
+
+    private LoadGameMessage roundTrip(LoadGameMessage message) {
+        return gson.fromJson(gson.toJson(message), LoadGameMessage.class);
+    }
+
+    @Test
+    @DisplayName("Catch-Up Moves Round Trip")
+    public void catchUpRoundTrip() {
+        List<ChessMove> moves = List.of(
+                move(2, 5, 4, 5, null),
+                move(7, 1, 8, 2, ChessPiece.PieceType.KNIGHT),
+                move(2, 8, 1, 8, ChessPiece.PieceType.QUEEN));
+        LoadGameMessage restored = roundTrip(LoadGameMessage.catchUp(12, moves, null));
+
+        Assertions.assertEquals(12, restored.getFromPly());
+        Assertions.assertEquals(moves, restored.getMoves());
+        Assertions.assertNull(restored.getGame());
+        Assertions.assertNull(restored.getLegalMoves());
+        Assertions.assertEquals(List.of(), roundTrip(LoadGameMessage.catchUp(3, List.of(), null)).getMoves());
+    }
+
+    @Test
+    @DisplayName("Legal Moves Round Trip")
+    public void legalMovesRoundTrip() {
+        // a7 promotes four ways, which share one from-to pair on the wire
+        ChessGame game = Fen.parse("4k3/P7/8/8/8/8/8/4K3 w - - 0 1");
+        List<ChessMove> legal = List.copyOf(game.legalMoves(ChessGame.TeamColor.WHITE));
+        LoadGameMessage restored = roundTrip(new LoadGameMessage(null, LoadGameMessage.encodeLegalMoves(legal)));
+
+        Set<ChessMove> withoutPromotions = new HashSet<>();
+        for (ChessMove move : legal) {
+            withoutPromotions.add(new ChessMove(move.getStartPosition(), move.getEndPosition(), null));
+        }
+        List<ChessMove> decoded = restored.getLegalMoves();
+        Assertions.assertEquals(withoutPromotions.size(), decoded.size());
+        Assertions.assertEquals(withoutPromotions, new HashSet<>(decoded));
+        Assertions.assertTrue(decoded.contains(move(7, 1, 8, 1, null)));
+        Assertions.assertNull(new LoadGameMessage(null).getLegalMoves());
+    }
+
+    @Test
+    @DisplayName("Malformed Moves Are Rejected")
+    public void malformedMoves() {
+        String unknownPiece = gson.toJson(LoadGameMessage.catchUp(0, List.of(move(7, 1, 8, 1, ChessPiece.PieceType.QUEEN)), null))
+                .replace("a7a8q", "a7a8x");
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> gson.fromJson(unknownPiece, LoadGameMessage.class).getMoves());
+
+        String offBoard = gson.toJson(LoadGameMessage.catchUp(0, List.of(move(2, 5, 4, 5, null)), null))
+                .replace("e2e4", "e2e9");
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> gson.fromJson(offBoard, LoadGameMessage.class).getMoves());
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new LoadGameMessage(null, "e2e4z9z9").getLegalMoves());
+    }
+}